@@ -0,0 +1,77 @@
+package com.asahaf.javacron.benchmarks;
+
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asahaf.javacron.InvalidExpressionException;
+import com.asahaf.javacron.Schedule;
+
+/**
+ * Measures calculating batches of next occurrences, and the next occurrences
+ * of batches of base times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+
+    @Param({ "* * * * * *", "*/5 * * * *", "0 0 0 L * *" })
+    public String expression;
+
+    @Param({ "10", "1000" })
+    public int count;
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private Schedule schedule;
+    private Date baseDate;
+    private long[] sortedBases;
+    private long[] out;
+
+    @Setup
+    public void setUp() throws InvalidExpressionException {
+        this.schedule = Schedule.create(this.expression);
+        this.baseDate = new Date(1563230645000L); // 2019-07-15T22:44:05Z
+        // base times 250ms apart, like timestamps of a backfill
+        this.sortedBases = new long[this.count];
+        this.out = new long[this.count];
+        for (int i = 0; i < this.count; i++) {
+            this.sortedBases[i] = this.baseDate.getTime() + i * 250L;
+        }
+    }
+
+    @Benchmark
+    public Date[] nextBatch() {
+        return this.schedule.next(this.baseDate, this.count);
+    }
+
+    @Benchmark
+    public long[] nextBatchOfBases() {
+        this.schedule.nextBatch(this.sortedBases, this.out, NEW_YORK);
+        return this.out;
+    }
+
+    @Benchmark
+    public long[] nextOfEachBase() {
+        for (int i = 0; i < this.sortedBases.length; i++) {
+            this.out[i] = this.schedule.nextEpochMillis(this.sortedBases[i], NEW_YORK);
+        }
+        return this.out;
+    }
+}
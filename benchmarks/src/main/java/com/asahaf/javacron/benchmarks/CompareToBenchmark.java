@@ -0,0 +1,43 @@
+package com.asahaf.javacron.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asahaf.javacron.InvalidExpressionException;
+import com.asahaf.javacron.Schedule;
+
+/**
+ * Measures comparing two schedules by their next occurrences.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompareToBenchmark {
+
+    private Schedule first;
+    private Schedule second;
+
+    @Setup
+    public void setUp() throws InvalidExpressionException {
+        this.first = Schedule.create("*/5 * * * *");
+        this.second = Schedule.create("0 9 * * 1-5");
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return this.first.compareTo(this.second);
+    }
+}
@@ -0,0 +1,92 @@
+package com.asahaf.javacron.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asahaf.javacron.InvalidExpressionException;
+import com.asahaf.javacron.Schedule;
+import com.asahaf.javacron.ValidationResult;
+
+/**
+ * Measures parsing a corpus of realistic crontab expressions, reading the same
+ * schedules from their binary form, and rejecting invalid expressions with
+ * create and validate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreateBenchmark {
+
+    static final String[] CORPUS = { "* * * * *", "*/5 * * * *", "0 * * * *", "0 0 * * *", "0 0 * * 0",
+            "0 0 1 * *", "30 2 * * 1-5", "15,45 8-18 * * mon-fri", "0 9 1,15 * *", "0 0 1 jan,apr,jul,oct *",
+            "0 0 L * *", "0 22 * * 5L", "*/10 * * * * *", "0 */15 9-17 * * 1-5", "0 0 0 29 2 *",
+            "0 0 12 1,15 * 1", "5 4 * * sun", "0 0,12 1 */2 *", "23 0-20/2 * * *", "0 0 0 * * *" };
+
+    static final String[] INVALID_CORPUS = { "* * *", "60 * * * *", "0 24 * * *", "0 0 0 * *", "0 0 * 13 *",
+            "0 0 * * 7", "0 0 * * foo", "*/0 * * * *", "5-1 * * * *", "0 0 30 2 *" };
+
+    private ByteBuffer binary;
+
+    @Setup
+    public void setUp() throws InvalidExpressionException {
+        this.binary = ByteBuffer.allocateDirect(CORPUS.length * Schedule.BINARY_SIZE);
+        for (String expression : CORPUS) {
+            Schedule.create(expression).writeTo(this.binary);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public void create(Blackhole blackhole) throws InvalidExpressionException {
+        for (String expression : CORPUS) {
+            blackhole.consume(Schedule.create(expression));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public void readFrom(Blackhole blackhole) {
+        ByteBuffer buffer = this.binary.duplicate();
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            blackhole.consume(Schedule.readFrom(buffer));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void createInvalid(Blackhole blackhole) {
+        for (String expression : INVALID_CORPUS) {
+            try {
+                blackhole.consume(Schedule.create(expression));
+            } catch (InvalidExpressionException ex) {
+                blackhole.consume(ex.getErrorOffset());
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void validateInvalid(Blackhole blackhole) {
+        for (String expression : INVALID_CORPUS) {
+            ValidationResult result = Schedule.validate(expression);
+            blackhole.consume(result.getErrorOffset());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.asahaf.javacron.benchmarks;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asahaf.javacron.InvalidExpressionException;
+import com.asahaf.javacron.PrecomputedSchedule;
+import com.asahaf.javacron.Schedule;
+
+/**
+ * Measures calculating a single next occurrence of dense, sparse, last day and
+ * union day/day of week schedules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NextBenchmark {
+
+    @Param({ "* * * * * *", "*/5 * * * *", "0 0 29 2 *", "0 0 0 L * *", "0 0 0 * * 5L", "0 0 12 1,15 * 1" })
+    public String expression;
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private Schedule schedule;
+    private Date baseDate;
+    private long baseEpochMillis;
+    private PrecomputedSchedule precomputed;
+    private long precomputedBaseEpochMillis;
+
+    @Setup
+    public void setUp() throws InvalidExpressionException {
+        this.schedule = Schedule.create(this.expression);
+        // a base time in the middle of a month, away from offset transitions
+        this.baseEpochMillis = 1563230645000L; // 2019-07-15T22:44:05Z
+        this.baseDate = new Date(this.baseEpochMillis);
+        // the precomputed window starts now, schedules without occurrences in the
+        // next day fall back to the schedule
+        this.precomputed = this.schedule.precompute(Duration.ofDays(1), NEW_YORK);
+        this.precomputedBaseEpochMillis = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public Date nextDate() {
+        return this.schedule.next(this.baseDate);
+    }
+
+    @Benchmark
+    public long nextEpochMillisUtc() {
+        return this.schedule.nextEpochMillis(this.baseEpochMillis, ZoneOffset.UTC);
+    }
+
+    @Benchmark
+    public long nextEpochMillisZone() {
+        return this.schedule.nextEpochMillis(this.baseEpochMillis, NEW_YORK);
+    }
+
+    @Benchmark
+    public long nextEpochMillisPrecomputed() {
+        return this.precomputed.nextEpochMillis(this.precomputedBaseEpochMillis);
+    }
+
+    @Benchmark
+    public long previousEpochMillisZone() {
+        return this.schedule.previousEpochMillis(this.baseEpochMillis, NEW_YORK);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return this.schedule.matches(this.baseEpochMillis / 1000L, NEW_YORK);
+    }
+}
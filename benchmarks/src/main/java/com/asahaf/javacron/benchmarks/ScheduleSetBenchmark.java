@@ -0,0 +1,74 @@
+package com.asahaf.javacron.benchmarks;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.asahaf.javacron.InvalidExpressionException;
+import com.asahaf.javacron.Schedule;
+import com.asahaf.javacron.ScheduleSet;
+
+/**
+ * Measures matching many schedules against one instant, with the columnar
+ * {@link ScheduleSet} and with a loop over the schedules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleSetBenchmark {
+
+    @Param({ "1000", "300000" })
+    private int size;
+
+    private final ZoneId zone = ZoneId.of("America/New_York");
+    private final long epochSecond = 1556704800L; // 2019-05-01T10:00:00Z
+    private Schedule[] schedules;
+    private ScheduleSet set;
+    private long[] bitmap;
+
+    @Setup
+    public void setUp() throws InvalidExpressionException {
+        Random random = new Random(1);
+        List<Schedule> schedules = new ArrayList<>(this.size);
+        for (int i = 0; i < this.size; i++) {
+            schedules.add(Schedule.create(random.nextInt(60) + " " + random.nextInt(24) + " * * "
+                    + (random.nextBoolean() ? "*" : String.valueOf(random.nextInt(7)))));
+        }
+        this.schedules = schedules.toArray(new Schedule[0]);
+        this.set = new ScheduleSet(schedules);
+        this.bitmap = new long[(this.size + 63) / 64];
+    }
+
+    @Benchmark
+    public int scheduleSet() {
+        return this.set.matches(this.epochSecond, this.zone, this.bitmap);
+    }
+
+    @Benchmark
+    public int eachSchedule() {
+        int count = 0;
+        for (Schedule schedule : this.schedules) {
+            if (schedule.matches(this.epochSecond, this.zone)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
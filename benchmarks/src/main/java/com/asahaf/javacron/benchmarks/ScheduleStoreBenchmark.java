@@ -0,0 +1,66 @@
+package com.asahaf.javacron.benchmarks;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.asahaf.javacron.InvalidExpressionException;
+import com.asahaf.javacron.Schedule;
+import com.asahaf.javacron.ScheduleStore;
+
+/**
+ * Measures calculating the next occurrences of the schedules of an off-heap
+ * {@link ScheduleStore}, and of the same schedules on the heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleStoreBenchmark {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final long BASE_EPOCH_MILLIS = 1563230645000L; // 2019-07-15T22:44:05Z
+
+    private Schedule[] schedules;
+    private ScheduleStore store;
+
+    @Setup
+    public void setUp() throws InvalidExpressionException {
+        this.schedules = new Schedule[CreateBenchmark.CORPUS.length];
+        this.store = new ScheduleStore(this.schedules.length);
+        for (int i = 0; i < this.schedules.length; i++) {
+            this.schedules[i] = Schedule.create(CreateBenchmark.CORPUS[i]);
+            this.store.add(this.schedules[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public void storeNext(Blackhole blackhole) {
+        for (int id = 0; id < this.store.size(); id++) {
+            blackhole.consume(this.store.nextEpochMillis(id, BASE_EPOCH_MILLIS, NEW_YORK));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(20)
+    public void heapNext(Blackhole blackhole) {
+        for (Schedule schedule : this.schedules) {
+            blackhole.consume(schedule.nextEpochMillis(BASE_EPOCH_MILLIS, NEW_YORK));
+        }
+    }
+}
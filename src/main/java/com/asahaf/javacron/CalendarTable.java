@@ -0,0 +1,86 @@
+package com.asahaf.javacron;
+
+/**
+ * Precomputed month lengths and first days of week used by the schedule
+ * engine.
+ *
+ * <p>
+ * The table covers the years from {@link #FIRST_YEAR} to {@link #LAST_YEAR},
+ * other years are calculated arithmetically. All calculations use the
+ * proleptic Gregorian calendar and zero based months.
+ */
+final class CalendarTable {
+
+    static final int FIRST_YEAR = 1970;
+    static final int LAST_YEAR = 2200;
+
+    private static final int[] DAY_OF_WEEK_MONTH_OFFSETS = { 0, 3, 2, 5, 0, 3, 5, 1, 4, 6, 2, 4 };
+    private static final int[] MONTH_LENGTHS = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    // each entry holds the length of the month in the high 5 bits and the day of
+    // week of its first day in the low 3 bits
+    private static final byte[] MONTHS = new byte[(LAST_YEAR - FIRST_YEAR + 1) * 12];
+
+    static {
+        for (int year = FIRST_YEAR; year <= LAST_YEAR; year++) {
+            for (int month = 0; month < 12; month++) {
+                MONTHS[(year - FIRST_YEAR) * 12 + month] = (byte) (calculateLengthOfMonth(year, month) << 3
+                        | calculateFirstDayOfWeek(year, month));
+            }
+        }
+    }
+
+    private CalendarTable() {
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        return lengthOf(monthOf(year, month));
+    }
+
+    /**
+     * Returns the day of week (0 Sunday - 6 Saturday) of the first day of the
+     * month.
+     */
+    static int firstDayOfWeek(int year, int month) {
+        return firstDayOfWeekOf(monthOf(year, month));
+    }
+
+    /**
+     * Returns the length and the first day of week of the month packed in a
+     * single value, to be read with {@link #lengthOf(int)} and
+     * {@link #firstDayOfWeekOf(int)}, so both are resolved with one lookup.
+     */
+    static int monthOf(int year, int month) {
+        if (year >= FIRST_YEAR && year <= LAST_YEAR) {
+            return MONTHS[(year - FIRST_YEAR) * 12 + month] & 0xFF;
+        }
+        return calculateLengthOfMonth(year, month) << 3 | calculateFirstDayOfWeek(year, month);
+    }
+
+    static int lengthOf(int packedMonth) {
+        return packedMonth >>> 3;
+    }
+
+    static int firstDayOfWeekOf(int packedMonth) {
+        return packedMonth & 0x7;
+    }
+
+    private static int calculateLengthOfMonth(int year, int month) {
+        if (month == 1 /* Feb */ && isLeapYear(year)) {
+            return 29;
+        }
+        return MONTH_LENGTHS[month];
+    }
+
+    private static int calculateFirstDayOfWeek(int year, int month) {
+        if (month < 2) {
+            year--;
+        }
+        return Math.floorMod(year + Math.floorDiv(year, 4) - Math.floorDiv(year, 100) + Math.floorDiv(year, 400)
+                + DAY_OF_WEEK_MONTH_OFFSETS[month] + 1, 7);
+    }
+}
@@ -0,0 +1,125 @@
+package com.asahaf.javacron;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that runs at most a number of tasks at the same time on another
+ * executor. Tasks over the limit wait in a queue, without blocking a thread,
+ * and start when a running task completes.
+ */
+final class ConcurrencyLimiter implements Executor {
+
+    private final Executor executor;
+    private volatile int maxConcurrentRuns;
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+    // requests to dispatch the pending tasks, a single thread dispatches at a
+    // time and loops while requests were added by other threads
+    private final AtomicInteger dispatchRequests = new AtomicInteger();
+
+    ConcurrencyLimiter(Executor executor, int maxConcurrentRuns) {
+        this.executor = executor;
+        this.maxConcurrentRuns = maxConcurrentRuns;
+    }
+
+    /**
+     * Changes the maximum number of tasks running at the same time. Running
+     * tasks are still counted, and waiting tasks start right away if the limit
+     * is raised.
+     */
+    void setMaxConcurrentRuns(int maxConcurrentRuns) {
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.dispatch();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        this.pending.add(task);
+        this.dispatch();
+    }
+
+    private void dispatch() {
+        // tasks completing on the dispatching thread, like with a same-thread
+        // executor, only request another pass instead of dispatching
+        // recursively, so a long queue doesn't grow the stack
+        if (this.dispatchRequests.getAndIncrement() != 0) {
+            return;
+        }
+        RuntimeException failure = null;
+        int requests = 1;
+        do {
+            try {
+                this.dispatchPending();
+            } catch (RuntimeException ex) {
+                // the requests are still completed, so later tasks are dispatched,
+                // and the failure is thrown to the caller afterwards
+                failure = failure == null ? ex : failure;
+            }
+            requests = this.dispatchRequests.addAndGet(-requests);
+        } while (requests != 0);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void dispatchPending() {
+        // a task is added before the running count is checked, and the count is
+        // decremented before a dispatch is requested, so a queued task is always
+        // picked up either by the thread adding it or by a completing task
+        while (!this.pending.isEmpty()) {
+            int count = this.running.get();
+            if (count >= this.maxConcurrentRuns) {
+                return;
+            }
+            if (!this.running.compareAndSet(count, count + 1)) {
+                continue;
+            }
+            Runnable task = this.pending.poll();
+            if (task == null) {
+                this.running.decrementAndGet();
+                continue;
+            }
+            Run run = new Run(task);
+            try {
+                this.executor.execute(run);
+            } catch (RuntimeException ex) {
+                // a same-thread executor throws the exceptions of the task itself
+                // after the run completed, and was already counted
+                if (!run.isStarted) {
+                    this.running.decrementAndGet();
+                }
+                if (run.isStarted || !(ex instanceof RejectedExecutionException)) {
+                    throw ex;
+                }
+                // the run is skipped, like runs rejected by the executor itself
+            }
+        }
+    }
+
+    /**
+     * A task handed to the executor, releasing its slot when it completes.
+     */
+    private final class Run implements Runnable {
+        private final Runnable task;
+        private boolean isStarted;
+
+        private Run(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            this.isStarted = true;
+            try {
+                this.task.run();
+            } finally {
+                ConcurrencyLimiter.this.running.decrementAndGet();
+                ConcurrencyLimiter.this.dispatch();
+            }
+        }
+    }
+}
@@ -1,59 +1,30 @@
 package com.asahaf.javacron;
 
 import java.util.BitSet;
-import java.util.Map;
-import java.util.TreeMap;
 
-class CronFieldParser {
+import com.asahaf.javacron.ValidationResult.ErrorCode;
 
-    private static Map<String, Integer> MONTHS_NAMES;
-    private static Map<String, Integer> DAYS_OF_WEEK_NAMES;
+/**
+ * Parses a single field of a crontab expression into a bit mask, where bit i
+ * represents the value {@code i + minAllowedValue} of the field.
+ *
+ * <p>
+ * A field is scanned once, character by character, without allocating
+ * intermediate strings. The parser holds no state between calls, so a single
+ * instance can be shared between threads.
+ */
+class CronFieldParser {
 
-    static {
-        CronFieldParser.MONTHS_NAMES = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
-        CronFieldParser.MONTHS_NAMES.put("January", 1);
-        CronFieldParser.MONTHS_NAMES.put("Jan", 1);
-        CronFieldParser.MONTHS_NAMES.put("February", 2);
-        CronFieldParser.MONTHS_NAMES.put("Feb", 2);
-        CronFieldParser.MONTHS_NAMES.put("March", 3);
-        CronFieldParser.MONTHS_NAMES.put("Mar", 3);
-        CronFieldParser.MONTHS_NAMES.put("April", 4);
-        CronFieldParser.MONTHS_NAMES.put("Apr", 4);
-        CronFieldParser.MONTHS_NAMES.put("May", 5);
-        CronFieldParser.MONTHS_NAMES.put("June", 6);
-        CronFieldParser.MONTHS_NAMES.put("Jun", 6);
-        CronFieldParser.MONTHS_NAMES.put("July", 7);
-        CronFieldParser.MONTHS_NAMES.put("Jul", 7);
-        CronFieldParser.MONTHS_NAMES.put("August", 8);
-        CronFieldParser.MONTHS_NAMES.put("Aug", 8);
-        CronFieldParser.MONTHS_NAMES.put("September", 9);
-        CronFieldParser.MONTHS_NAMES.put("Sep", 9);
-        CronFieldParser.MONTHS_NAMES.put("October", 10);
-        CronFieldParser.MONTHS_NAMES.put("Oct", 10);
-        CronFieldParser.MONTHS_NAMES.put("November", 11);
-        CronFieldParser.MONTHS_NAMES.put("Nov", 11);
-        CronFieldParser.MONTHS_NAMES.put("December", 12);
-        CronFieldParser.MONTHS_NAMES.put("Dec", 12);
+    private static final String[] MONTHS_NAMES = { "january", "february", "march", "april", "may", "june", "july",
+            "august", "september", "october", "november", "december" };
+    private static final String[] DAYS_OF_WEEK_NAMES = { "sunday", "monday", "tuesday", "wednesday", "thursday",
+            "friday", "saturday" };
 
-        CronFieldParser.DAYS_OF_WEEK_NAMES = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Sunday", 0);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Sun", 0);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Monday", 1);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Mon", 1);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Tuesday", 2);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Tue", 2);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Wednesday", 3);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Wed", 3);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Thursday", 4);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Thu", 4);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Friday", 5);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Fri", 5);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("Saturday", 6);
-        CronFieldParser.DAYS_OF_WEEK_NAMES.put("sat", 6);
-    }
+    // names can also be abbreviated to their first three letters
+    private static final int ABBREVIATION_LENGTH = 3;
 
     private CronFieldType fieldType;
-    private Map<String, Integer> choices;
+    private String[] names;
     private int length;
     private int maxAllowedValue;
     private int minAllowedValue;
@@ -82,14 +53,14 @@ class CronFieldParser {
                 this.minAllowedValue = 1;
                 break;
             case MONTH:
-                this.choices = CronFieldParser.MONTHS_NAMES;
+                this.names = CronFieldParser.MONTHS_NAMES;
                 this.fieldName = this.fieldType.toString().toLowerCase();
                 this.length = 12;
                 this.maxAllowedValue = 12;
                 this.minAllowedValue = 1;
                 break;
             case DAY_OF_WEEK:
-                this.choices = CronFieldParser.DAYS_OF_WEEK_NAMES;
+                this.names = CronFieldParser.DAYS_OF_WEEK_NAMES;
                 this.fieldName = "day of week";
                 this.length = 7;
                 this.maxAllowedValue = 6;
@@ -114,186 +85,239 @@ class CronFieldParser {
         return this.length;
     }
 
-    private boolean isInteger(String str) {
-        try {
-            Integer.parseInt(str);
-            return true;
-        } catch (NumberFormatException ex) {
-            return false;
-        }
+    public BitSet parse(String token) throws InvalidExpressionException {
+        return BitSet.valueOf(new long[] { this.parse(token, 0, token.length()) });
     }
 
-    private int getChoiceNumber(String choice) {
-        if (!this.choices.containsKey(choice)) {
-            return -1;
+    /**
+     * Parses the field between {@code start} (inclusive) and {@code end}
+     * (exclusive) of the expression. The offsets of invalid values are reported
+     * relative to the start of the expression.
+     *
+     * @return the bit mask of the values of the field.
+     */
+    long parse(CharSequence expression, int start, int end) throws InvalidExpressionException {
+        long mask = this.scan(expression, start, end);
+        if (mask < 0) {
+            throw this.exceptionOf(expression, start, end, mask);
         }
-        return this.choices.get(choice);
+        return mask;
     }
 
-    private int parseValue(String token) {
-        int value = -1;
-        if (this.choices != null) {
-            if (this.isInteger(token)) {
-                value = Integer.parseInt(token);
-            } else {
-                value = this.getChoiceNumber(token);
+    /**
+     * Parses the field like {@link #parse(CharSequence, int, int)}, but without
+     * throwing, the error of an invalid field is returned packed in a negative
+     * value by {@link ValidationResult#error(ValidationResult.ErrorCode, int)}.
+     *
+     * @return the bit mask of the values of the field, or the error.
+     */
+    long scan(CharSequence expression, int start, int end) {
+        long mask = 0L;
+        int itemStart = start;
+        for (int position = start; position <= end; position++) {
+            if (position == end || expression.charAt(position) == ',') {
+                long item = this.scanItem(expression, itemStart, position);
+                if (item < 0) {
+                    return item;
+                }
+                mask |= item;
+                itemStart = position + 1;
             }
-        } else {
-            value = Integer.parseInt(token);
         }
-        return value;
+        return mask;
     }
 
-    public BitSet parse(String token) throws InvalidExpressionException {
-        // This is when last day of the month is specified
-        if (this.fieldType == CronFieldType.DAY_OF_WEEK) {
-            if (token.length() == 2 && token.endsWith("l")) {
-                return this.parseLiteral(token.substring(0, 1));
-            }
-        } else if (this.fieldType == CronFieldType.DAY) {
-            if ("l".equals(token)) {
-                return this.parseLastDayOfMonth();
+    private long scanItem(CharSequence expression, int start, int end) {
+        int position = start;
+        long mask;
+        int from = -1;
+        if (position < end && expression.charAt(position) == '*') {
+            mask = this.rangeMask(this.minAllowedValue, this.maxAllowedValue);
+            position++;
+        } else if (this.fieldType == CronFieldType.DAY && position < end && isLastMarker(expression.charAt(position))) {
+            // last day of the month, the actual day is decided per month
+            mask = this.rangeMask(28, 31);
+            position++;
+        } else {
+            int valueEnd = valueEnd(expression, position, end);
+            int value = this.parseValue(expression, position, valueEnd);
+            if (value < 0) {
+                return ValidationResult.error(ErrorCode.INVALID_VALUE, position);
             }
-        }
-        if (token.indexOf(",") > -1) {
-            BitSet bitSet = new BitSet(this.length);
-            String[] items = token.split(",");
-            for (String item : items) {
-                bitSet.or(this.parse(item));
+            position = valueEnd;
+            if (position < end && expression.charAt(position) == '-') {
+                int toStart = position + 1;
+                int toEnd = valueEnd(expression, toStart, end);
+                int to = this.parseValue(expression, toStart, toEnd);
+                if (to < 0) {
+                    return ValidationResult.error(ErrorCode.INVALID_VALUE, toStart);
+                }
+                if (value < this.minAllowedValue) {
+                    return ValidationResult.error(ErrorCode.BELOW_MINIMUM, start);
+                }
+                if (to > this.maxAllowedValue) {
+                    return ValidationResult.error(ErrorCode.ABOVE_MAXIMUM, toStart);
+                }
+                if (to < value) {
+                    return ValidationResult.error(ErrorCode.INVALID_RANGE, start);
+                }
+                mask = this.rangeMask(value, to);
+                position = toEnd;
+            } else {
+                if (value < this.minAllowedValue) {
+                    return ValidationResult.error(ErrorCode.BELOW_MINIMUM, start);
+                }
+                if (value > this.maxAllowedValue) {
+                    return ValidationResult.error(ErrorCode.ABOVE_MAXIMUM, start);
+                }
+                mask = 1L << (value - this.minAllowedValue);
+                if (Character.isLetter(expression.charAt(start))) {
+                    // a name is a single value even when followed by a step
+                } else if (this.fieldType == CronFieldType.DAY_OF_WEEK && position == start + 1 && position < end
+                        && isLastMarker(expression.charAt(position))) {
+                    // last specific day of week of the month (e.g. 5L)
+                    position++;
+                } else {
+                    from = value;
+                }
             }
-            return bitSet;
         }
 
-        if (token.indexOf("/") > -1)
-            return this.parseStep(token);
-
-        if (token.indexOf("-") > -1)
-            return this.parseRange(token);
-
-        if (token.equalsIgnoreCase("*"))
-            return this.parseAsterisk();
-
-        return this.parseLiteral(token);
-    }
-
-    private BitSet parseStep(String token) throws InvalidExpressionException {
-        try {
-            String[] tokenParts = token.split("/");
-            if (tokenParts.length != 2) {
-                throw new InvalidExpressionException(String.format("invalid %s field: \"%s\"", this.fieldName, token));
+        if (position < end && expression.charAt(position) == '/') {
+            int stepStart = position + 1;
+            int stepEnd = valueEnd(expression, stepStart, end);
+            int step = this.parseValue(expression, stepStart, stepEnd);
+            if (step < 0) {
+                return ValidationResult.error(ErrorCode.INVALID_VALUE, stepStart);
             }
-            String stepSizePart = tokenParts[1];
-            int stepSize = this.parseValue(stepSizePart);
-            if (stepSize < 1) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\". minimum allowed step (every) value is \"1\"",
-                                this.fieldName, token));
+            if (step < 1) {
+                return ValidationResult.error(ErrorCode.INVALID_STEP, stepStart);
             }
-            String numSetPart = tokenParts[0];
-            if (!numSetPart.contains("-") && numSetPart != "*" && isInteger(numSetPart)) {
+            if (from >= 0) {
                 // if number is a single digit, it should be a range starts with that
                 // number and ends with the maximum allowed value for the field type
-                numSetPart = String.format("%s-%d", numSetPart, this.maxAllowedValue);
+                mask = this.rangeMask(from, this.maxAllowedValue);
             }
-            BitSet numSet = this.parse(numSetPart);
-            BitSet stepsSet = new BitSet(this.length);
-            for (int i = numSet.nextSetBit(0); i < this.length; i += stepSize) {
-                stepsSet.set(i);
+            long steps = 0L;
+            for (int i = Long.numberOfTrailingZeros(mask); i < this.length; i += step) {
+                steps |= 1L << i;
             }
-            stepsSet.and(numSet);
-            return stepsSet;
-        } catch (NumberFormatException ex) {
-            throw new InvalidExpressionException(String.format("invalid %s field: \"%s\"", this.fieldName, token), ex);
+            mask &= steps;
+            position = stepEnd;
         }
+
+        if (position != end) {
+            return ValidationResult.error(ErrorCode.INVALID_VALUE, position);
+        }
+        return mask;
     }
 
-    private BitSet parseRange(String token) throws InvalidExpressionException {
-        String[] rangeParts = token.split("-");
-        if (rangeParts.length != 2) {
-            throw new InvalidExpressionException(String.format("invalid %s field: \"%s\"", this.fieldName, token));
+    /**
+     * Parses a number or a name between {@code start} and {@code end}. Values of
+     * names are only checked to be known, the range of values is checked by the
+     * caller.
+     *
+     * @return the value, or -1 if there's no value or the name is unknown.
+     */
+    private int parseValue(CharSequence expression, int start, int end) {
+        if (start == end) {
+            return -1;
         }
-        try {
-            int from = this.minAllowedValue;
-            int to = this.maxAllowedValue;
+        if (Character.isLetter(expression.charAt(start))) {
+            return this.nameValue(expression, start, end);
+        }
+        int value = 0;
+        for (int position = start; position < end; position++) {
+            // larger values are out of range anyway, stop before overflowing
+            value = Math.min(value * 10 + Character.digit(expression.charAt(position), 10), 1000);
+        }
+        return value;
+    }
 
-            from = this.parseValue(rangeParts[0]);
-            if (from < 0) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\".", this.fieldName, token, this.minAllowedValue));
-            }
-            if (from < this.minAllowedValue) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\". minimum allowed value for %s field is \"%d\"",
-                                this.fieldName, token, this.fieldName, this.minAllowedValue));
+    private int nameValue(CharSequence expression, int start, int end) {
+        if (this.names == null) {
+            return -1;
+        }
+        int nameLength = end - start;
+        for (int i = 0; i < this.names.length; i++) {
+            String name = this.names[i];
+            if ((nameLength == ABBREVIATION_LENGTH || nameLength == name.length())
+                    && regionMatches(expression, start, name, nameLength)) {
+                return i + this.minAllowedValue;
             }
+        }
+        return -1;
+    }
 
-            to = this.parseValue(rangeParts[1]);
-            if (to < 0) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\".", this.fieldName, token, this.minAllowedValue));
-            }
-            if (to > this.maxAllowedValue) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\". maximum allowed value for %s field is \"%d\"",
-                                this.fieldName, token, this.fieldName, this.maxAllowedValue));
-            }
-            if (to < from) {
-                throw new InvalidExpressionException(String.format(
-                        "invalid %s field: \"%s\". the start of range value must be less than or equal the end value",
-                        this.fieldName, token));
+    private static boolean regionMatches(CharSequence expression, int start, String name, int length) {
+        for (int i = 0; i < length; i++) {
+            char c = expression.charAt(start + i);
+            char n = name.charAt(i);
+            if (c != n && Character.toLowerCase(Character.toUpperCase(c)) != n) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            BitSet bitSet = new BitSet(this.length);
-            int fromIndex = from - this.minAllowedValue;
-            int toIndex = to - this.minAllowedValue;
-            for (int i = fromIndex; i <= toIndex; i++) {
-                bitSet.set(i);
+    /**
+     * Returns the end of the number or name starting at {@code start}.
+     */
+    private static int valueEnd(CharSequence expression, int start, int end) {
+        int position = start;
+        if (position < end && Character.isLetter(expression.charAt(position))) {
+            while (position < end && Character.isLetter(expression.charAt(position))) {
+                position++;
+            }
+        } else {
+            while (position < end && Character.isDigit(expression.charAt(position))) {
+                position++;
             }
-            return bitSet;
-        } catch (NumberFormatException ex) {
-            throw new InvalidExpressionException(String.format("invalid %s field: \"%s\"", this.fieldName, token), ex);
         }
+        return position;
     }
 
-    private BitSet parseAsterisk() {
-        BitSet bitSet = new BitSet(this.length);
-        bitSet.set(0, this.length);
-        return bitSet;
+    static boolean isLastMarker(char c) {
+        return c == 'l' || c == 'L';
     }
 
-    public BitSet parseLastDayOfMonth() throws InvalidExpressionException {
-        if (this.fieldType == CronFieldType.DAY) {
-            BitSet bitSet = new BitSet(this.length);
-            for (int i = 27; i <= length; i++) {
-                bitSet.set(i);
-            }
-            return bitSet;
-        }
-        throw new InvalidExpressionException("Last day of month is only allowed in day field");
+    private long rangeMask(int from, int to) {
+        return ((1L << (to - from + 1)) - 1) << (from - this.minAllowedValue);
     }
 
-    private BitSet parseLiteral(String token) throws InvalidExpressionException {
-        BitSet bitSet = new BitSet(this.length);
-        try {
-            int number = this.parseValue(token);
-            if (number < 0) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\".", this.fieldName, token, this.minAllowedValue));
-            }
-            if (number < this.minAllowedValue) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\". minimum allowed value for %s field is \"%d\"",
-                                this.fieldName, token, this.fieldName, this.minAllowedValue));
-            }
-            if (number > this.maxAllowedValue) {
-                throw new InvalidExpressionException(
-                        String.format("invalid %s field: \"%s\". maximum allowed value for %s field is \"%d\"",
-                                this.fieldName, token, this.fieldName, this.maxAllowedValue));
-            }
-            bitSet.set(number - this.minAllowedValue);
-        } catch (NumberFormatException ex) {
-            throw new InvalidExpressionException(String.format("invalid %s field: \"%s\"", this.fieldName, token), ex);
+    /**
+     * Builds the exception of an error returned by
+     * {@link #scan(CharSequence, int, int)} for the field between {@code start}
+     * and {@code end}. The message quotes the item of the field (the values
+     * between commas) in which the error was found.
+     */
+    InvalidExpressionException exceptionOf(CharSequence expression, int start, int end, long error) {
+        int errorOffset = ValidationResult.offsetOf(error);
+        int itemStart = errorOffset;
+        while (itemStart > start && expression.charAt(itemStart - 1) != ',') {
+            itemStart--;
+        }
+        int itemEnd = errorOffset;
+        while (itemEnd < end && expression.charAt(itemEnd) != ',') {
+            itemEnd++;
+        }
+        String invalid = String.format("invalid %s field: \"%s\"", this.fieldName,
+                expression.subSequence(itemStart, itemEnd));
+        switch (ValidationResult.codeOf(error)) {
+            case BELOW_MINIMUM:
+                return new InvalidExpressionException(String.format("%s. minimum allowed value for %s field is \"%d\"",
+                        invalid, this.fieldName, this.minAllowedValue), errorOffset);
+            case ABOVE_MAXIMUM:
+                return new InvalidExpressionException(String.format("%s. maximum allowed value for %s field is \"%d\"",
+                        invalid, this.fieldName, this.maxAllowedValue), errorOffset);
+            case INVALID_RANGE:
+                return new InvalidExpressionException(
+                        invalid + ". the start of range value must be less than or equal the end value", errorOffset);
+            case INVALID_STEP:
+                return new InvalidExpressionException(invalid + ". minimum allowed step (every) value is \"1\"",
+                        errorOffset);
+            default:
+                return new InvalidExpressionException(invalid, errorOffset);
         }
-        return bitSet;
     }
 }
@@ -0,0 +1,429 @@
+package com.asahaf.javacron;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.ZoneId;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs tasks at the occurrences of their schedules.
+ *
+ * <p>
+ * The scheduler keeps the tasks in a hierarchical timing wheel with a wheel of
+ * 60 seconds, a wheel of 60 minutes and a wheel of 24 hours, the same units as
+ * the fields of a schedule. A task is kept in the wheel of the largest unit
+ * between now and its next occurrence, and moves to the next smaller wheel when
+ * the larger unit starts. Tasks more than a day away are kept in an overflow
+ * list that is checked once a day. Every second, a single timer thread only
+ * visits the tasks due in that second, and each task costs a single object
+ * however far its next occurrence is, so a scheduler can hold millions of
+ * tasks.
+ *
+ * <p>
+ * Due tasks are handed to the executor of the scheduler, and are scheduled
+ * again at their next occurrence right away, without waiting for them to
+ * complete. A run the executor fails to accept is skipped, exceptions other
+ * than {@link RejectedExecutionException} are reported to the uncaught
+ * exception handler of the timer thread. The timer thread never runs the tasks
+ * itself, so a slow task doesn't delay the other tasks as long as the executor
+ * has threads available. On Java 21 or later,
+ * {@link #newVirtualThreadExecutor()} runs every task on its own virtual
+ * thread, so bursts of blocking tasks, like all the hourly tasks at the top of
+ * the hour, don't wait for a free thread. The number of concurrent runs of the
+ * tasks of a schedule can be limited with {@link #setConcurrencyLimit}.
+ *
+ * <pre>
+ * ExecutorService executor = Executors.newFixedThreadPool(8);
+ * CronScheduler scheduler = new CronScheduler(ZoneId.systemDefault(), executor);
+ * CronScheduler.Registration registration = scheduler.schedule(Schedule.create("0 * * * *"), task);
+ * ...
+ * registration.cancel();
+ * scheduler.close();
+ * </pre>
+ */
+public final class CronScheduler implements AutoCloseable {
+
+    /**
+     * A task registered in a {@link CronScheduler}.
+     */
+    public interface Registration {
+
+        /**
+         * @return the schedule on which the task runs.
+         */
+        Schedule getSchedule();
+
+        /**
+         * Stops running the task at the next occurrences of its schedule. A run
+         * that was already handed to the executor is not interrupted.
+         */
+        void cancel();
+
+        /**
+         * @return {@code true} if the registration was cancelled; {@code false}
+         *         otherwise.
+         */
+        boolean isCancelled();
+    }
+
+    private static final int SECONDS_PER_MINUTE = 60;
+    private static final int SECONDS_PER_HOUR = 3600;
+    private static final int SECONDS_PER_DAY = 86400;
+
+    /**
+     * A registered task, linked in the list of a wheel slot. The links and the
+     * due time are only accessed by the timer thread.
+     */
+    private static final class Entry implements Registration {
+        private final CronScheduler scheduler;
+        private final Schedule schedule;
+        private final Runnable task;
+        private long dueEpochSecond;
+        private Entry previous;
+        private Entry next;
+        private volatile boolean isCancelled;
+
+        private Entry(CronScheduler scheduler, Schedule schedule, Runnable task) {
+            this.scheduler = scheduler;
+            this.schedule = schedule;
+            this.task = task;
+        }
+
+        @Override
+        public Schedule getSchedule() {
+            return this.schedule;
+        }
+
+        @Override
+        public void cancel() {
+            if (!this.isCancelled) {
+                this.isCancelled = true;
+                // the timer thread unlinks the entry, so its memory is released
+                // without waiting for its next occurrence
+                this.scheduler.commands.add(this);
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.isCancelled;
+        }
+    }
+
+    private final ZoneOffsets offsets;
+    private final Executor executor;
+    private final LongSupplier clock;
+    // registrations and cancellations from any thread, applied by the timer thread
+    private final Queue<Entry> commands = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<Schedule, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+    private final Entry[] seconds = newSlots(60);
+    private final Entry[] minutes = newSlots(60);
+    private final Entry[] hours = newSlots(24);
+    private final Entry overflow = newSlot();
+    private final Thread timer;
+    private volatile boolean isRunning = true;
+    private long currentEpochSecond;
+
+    /**
+     * Creates a scheduler and starts its timer thread.
+     *
+     * @param zone     the time zone in which the schedules are evaluated.
+     * @param executor the executor running the due tasks.
+     */
+    public CronScheduler(ZoneId zone, Executor executor) {
+        this(zone, executor, System::currentTimeMillis, true);
+    }
+
+    CronScheduler(ZoneId zone, Executor executor, LongSupplier clock, boolean startTimer) {
+        this.offsets = ZoneOffsets.of(zone);
+        this.executor = executor;
+        this.clock = clock;
+        this.currentEpochSecond = Math.floorDiv(clock.getAsLong(), 1000L);
+        if (startTimer) {
+            this.timer = new Thread(this::runTimer, "javacron-scheduler");
+            this.timer.setDaemon(true);
+            this.timer.start();
+        } else {
+            this.timer = null;
+        }
+    }
+
+    /**
+     * Registers a task to run at every occurrence of the schedule, starting from
+     * the first occurrence after now.
+     *
+     * @param schedule the schedule of the task.
+     * @param task     the task to run.
+     * @return the registration of the task, which can be used to cancel it.
+     */
+    public Registration schedule(Schedule schedule, Runnable task) {
+        if (!this.isRunning) {
+            throw new RejectedExecutionException("scheduler is closed");
+        }
+        Entry entry = new Entry(this, schedule, task);
+        // the base of the first occurrence is the time of registration, not the
+        // time the timer thread gets to it
+        entry.dueEpochSecond = Math.floorDiv(this.clock.getAsLong(), 1000L);
+        this.commands.add(entry);
+        return entry;
+    }
+
+    /**
+     * Limits the number of runs of the tasks of a schedule that run at the same
+     * time, including tasks registered on an equal schedule before the limit
+     * was set. Runs over the limit wait, without blocking a thread, until a
+     * running task of the schedule completes.
+     *
+     * <p>
+     * Changing the limit of a schedule that is already limited keeps counting
+     * its running tasks, and runs waiting for the old limit start if the limit
+     * is raised.
+     *
+     * @param schedule          the schedule to limit.
+     * @param maxConcurrentRuns the maximum number of runs at the same time.
+     */
+    public void setConcurrencyLimit(Schedule schedule, int maxConcurrentRuns) {
+        if (maxConcurrentRuns < 1) {
+            throw new IllegalArgumentException("concurrency limit must be positive: " + maxConcurrentRuns);
+        }
+        this.limiters.computeIfAbsent(schedule, key -> new ConcurrencyLimiter(this.executor, maxConcurrentRuns))
+                .setMaxConcurrentRuns(maxConcurrentRuns);
+    }
+
+    /**
+     * Removes the concurrency limit of a schedule. Runs that are already running
+     * are not affected, runs waiting for the limit start right away, and later
+     * runs are handed to the executor without a limit. A limit set again later
+     * doesn't count the runs started before it.
+     *
+     * @param schedule the schedule whose limit is removed.
+     */
+    public void removeConcurrencyLimit(Schedule schedule) {
+        ConcurrencyLimiter limiter = this.limiters.remove(schedule);
+        if (limiter != null) {
+            limiter.setMaxConcurrentRuns(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Checks whether the running JVM supports virtual threads, which are
+     * available from Java 21.
+     *
+     * @return {@code true} if {@link #newVirtualThreadExecutor()} is supported;
+     *         {@code false} otherwise.
+     */
+    public static boolean isVirtualThreadSupported() {
+        try {
+            newVirtualThreadExecutor().shutdown();
+            return true;
+        } catch (UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task, to be
+     * used as the executor of a scheduler. The executor is looked up at run time,
+     * so the library still runs on Java 8.
+     *
+     * @return a new executor running each task on a virtual thread.
+     * @throws UnsupportedOperationException if the running JVM doesn't support
+     *                                       virtual threads.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        Method factory;
+        try {
+            factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException ex) {
+            throw new UnsupportedOperationException("virtual threads require Java 21 or later", ex);
+        }
+        try {
+            return (ExecutorService) factory.invoke(null);
+        } catch (InvocationTargetException ex) {
+            // preview versions of virtual threads fail when previews are disabled
+            throw new UnsupportedOperationException("virtual threads are not enabled", ex.getCause());
+        } catch (IllegalAccessException ex) {
+            throw new UnsupportedOperationException("virtual threads are not accessible", ex);
+        }
+    }
+
+    /**
+     * Stops the timer thread. Tasks that were already handed to the executor are
+     * not affected, and the executor is not shut down.
+     */
+    @Override
+    public void close() {
+        this.isRunning = false;
+        if (this.timer != null) {
+            LockSupport.unpark(this.timer);
+        }
+    }
+
+    private void runTimer() {
+        while (this.isRunning) {
+            this.tick();
+            long sleepMillis = (this.currentEpochSecond + 1) * 1000L - this.clock.getAsLong();
+            if (sleepMillis > 0) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(sleepMillis));
+            }
+        }
+    }
+
+    /**
+     * Applies the pending registrations and cancellations, and runs the tasks due
+     * up to now.
+     */
+    void tick() {
+        Entry entry;
+        while ((entry = this.commands.poll()) != null) {
+            if (entry.isCancelled) {
+                if (entry.previous != null) {
+                    unlink(entry);
+                }
+            } else if (entry.previous == null) {
+                entry.dueEpochSecond = entry.schedule.nextEpochSecond(
+                        Math.max(entry.dueEpochSecond, this.currentEpochSecond), this.offsets);
+                this.place(entry);
+            }
+        }
+        long nowEpochSecond = Math.floorDiv(this.clock.getAsLong(), 1000L);
+        while (this.currentEpochSecond < nowEpochSecond && this.isRunning) {
+            this.advance(this.currentEpochSecond + 1, nowEpochSecond);
+        }
+    }
+
+    /**
+     * Moves the wheels to the provided second and runs the tasks due in it. When
+     * the timer is behind, like after the system was suspended, the tasks are
+     * scheduled again after now, so missed occurrences run once.
+     */
+    private void advance(long epochSecond, long nowEpochSecond) {
+        this.currentEpochSecond = epochSecond;
+        // larger units first, their entries may be due in this very second
+        if (Math.floorMod(epochSecond, SECONDS_PER_DAY) == 0) {
+            this.cascade(this.overflow);
+        }
+        if (Math.floorMod(epochSecond, SECONDS_PER_HOUR) == 0) {
+            this.cascade(this.hours[(int) Math.floorMod(Math.floorDiv(epochSecond, SECONDS_PER_HOUR), 24)]);
+        }
+        if (Math.floorMod(epochSecond, SECONDS_PER_MINUTE) == 0) {
+            this.cascade(this.minutes[(int) Math.floorMod(Math.floorDiv(epochSecond, SECONDS_PER_MINUTE), 60)]);
+        }
+
+        Entry slot = this.seconds[(int) Math.floorMod(epochSecond, 60)];
+        Entry first = slot.next;
+        if (first == slot) {
+            return;
+        }
+        Entry last = slot.previous;
+        slot.next = slot;
+        slot.previous = slot;
+        for (Entry entry = first, next;; entry = next) {
+            next = entry.next;
+            entry.previous = null;
+            entry.next = null;
+            if (!entry.isCancelled) {
+                Executor executor = this.limiters.isEmpty() ? null : this.limiters.get(entry.schedule);
+                if (executor == null) {
+                    executor = this.executor;
+                }
+                try {
+                    executor.execute(entry.task);
+                } catch (RejectedExecutionException ex) {
+                    // the run is skipped, the task runs again at its next occurrence
+                } catch (RuntimeException ex) {
+                    // a failing executor must not stop the timer thread, and the
+                    // entries of the slot that were already unlinked must be placed
+                    // again, so the run is skipped and the failure is reported
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+                }
+                entry.dueEpochSecond = entry.schedule.nextEpochSecond(nowEpochSecond, this.offsets);
+                this.place(entry);
+            }
+            if (entry == last) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Moves the entries of a slot of a larger unit to the wheels of smaller units.
+     */
+    private void cascade(Entry slot) {
+        Entry first = slot.next;
+        if (first == slot) {
+            return;
+        }
+        Entry last = slot.previous;
+        slot.next = slot;
+        slot.previous = slot;
+        for (Entry entry = first, next;; entry = next) {
+            next = entry.next;
+            entry.previous = null;
+            entry.next = null;
+            this.place(entry);
+            if (entry == last) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Links the entry in the slot of its due time, in the wheel of the largest
+     * unit that starts between the current second and the due time.
+     */
+    private void place(Entry entry) {
+        long due = entry.dueEpochSecond;
+        long current = this.currentEpochSecond;
+        Entry slot;
+        if (due - current < SECONDS_PER_MINUTE) {
+            slot = this.seconds[(int) Math.floorMod(due, 60)];
+        } else if (Math.floorDiv(due, SECONDS_PER_MINUTE) - Math.floorDiv(current, SECONDS_PER_MINUTE) < 60) {
+            slot = this.minutes[(int) Math.floorMod(Math.floorDiv(due, SECONDS_PER_MINUTE), 60)];
+        } else if (Math.floorDiv(due, SECONDS_PER_HOUR) - Math.floorDiv(current, SECONDS_PER_HOUR) < 24) {
+            slot = this.hours[(int) Math.floorMod(Math.floorDiv(due, SECONDS_PER_HOUR), 24)];
+        } else {
+            slot = this.overflow;
+        }
+        entry.next = slot;
+        entry.previous = slot.previous;
+        slot.previous.next = entry;
+        slot.previous = entry;
+    }
+
+    private static void unlink(Entry entry) {
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        entry.previous = null;
+        entry.next = null;
+    }
+
+    private static Entry[] newSlots(int count) {
+        Entry[] slots = new Entry[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = newSlot();
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the head of an empty circular list.
+     */
+    private static Entry newSlot() {
+        Entry slot = new Entry(null, null, null);
+        slot.previous = slot;
+        slot.next = slot;
+        return slot;
+    }
+}
@@ -0,0 +1,378 @@
+package com.asahaf.javacron;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads crontab-style files, where each line is an expression followed by a
+ * command, and reloads them incrementally.
+ *
+ * <p>
+ * A file is read a line at a time, and the lines are parsed in batches on an
+ * executor while the rest of the file is read, so large files are parsed on
+ * all cores without reading them whole. Blank lines and lines starting with
+ * {@code #} are skipped. Lines that can't be parsed are reported with their
+ * line numbers, and don't stop the load.
+ *
+ * <p>
+ * The loader remembers the entries of its last load. A line that is exactly
+ * the same as a line of the last load isn't parsed again, it keeps its
+ * {@link Entry} object, and the result of a reload lists the entries that were
+ * added and removed, so only the changed entries have to be registered again.
+ *
+ * <pre>
+ * CrontabLoader loader = new CrontabLoader();
+ * CrontabLoader.Result result = loader.load(Paths.get("tenants.cron"));
+ * ...
+ * result = loader.load(Paths.get("tenants.cron"));
+ * for (CrontabLoader.Entry entry : result.getRemoved()) {
+ *     unregister(entry);
+ * }
+ * for (CrontabLoader.Entry entry : result.getAdded()) {
+ *     register(entry.getSchedule(), entry.getCommand());
+ * }
+ * </pre>
+ *
+ * <p>
+ * Loads are synchronized, a loader can be used from multiple threads.
+ */
+public final class CrontabLoader {
+
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * A parsed line of a crontab file.
+     */
+    public static final class Entry {
+        private final String line;
+        private final Schedule schedule;
+        private final String command;
+
+        private Entry(String line, Schedule schedule, String command) {
+            this.line = line;
+            this.schedule = schedule;
+            this.command = command;
+        }
+
+        /**
+         * Returns the line of the entry.
+         *
+         * @return the line of the entry, as it appears in the file.
+         */
+        public String getLine() {
+            return this.line;
+        }
+
+        /**
+         * Returns the schedule of the entry.
+         *
+         * @return the schedule parsed from the expression of the line.
+         */
+        public Schedule getSchedule() {
+            return this.schedule;
+        }
+
+        /**
+         * Returns the command of the entry.
+         *
+         * @return the rest of the line after the expression.
+         */
+        public String getCommand() {
+            return this.command;
+        }
+
+        @Override
+        public String toString() {
+            return this.line;
+        }
+    }
+
+    /**
+     * A line of a crontab file that couldn't be parsed.
+     */
+    public static final class LineError {
+        private final int lineNumber;
+        private final String line;
+        private final InvalidExpressionException exception;
+
+        private LineError(int lineNumber, String line, InvalidExpressionException exception) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.exception = exception;
+        }
+
+        /**
+         * Returns the number of the line.
+         *
+         * @return the one based number of the line in the file.
+         */
+        public int getLineNumber() {
+            return this.lineNumber;
+        }
+
+        /**
+         * Returns the line.
+         *
+         * @return the line, as it appears in the file.
+         */
+        public String getLine() {
+            return this.line;
+        }
+
+        /**
+         * Returns the error of the line. Its error offset is the offset in the
+         * line.
+         *
+         * @return the error of the line.
+         */
+        public InvalidExpressionException getException() {
+            return this.exception;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + this.lineNumber + ": " + this.exception.getMessage();
+        }
+    }
+
+    /**
+     * The result of a load.
+     */
+    public static final class Result {
+        private final List<Entry> entries;
+        private final List<Entry> added;
+        private final List<Entry> removed;
+        private final List<LineError> errors;
+
+        private Result(List<Entry> entries, List<Entry> added, List<Entry> removed, List<LineError> errors) {
+            this.entries = Collections.unmodifiableList(entries);
+            this.added = Collections.unmodifiableList(added);
+            this.removed = Collections.unmodifiableList(removed);
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        /**
+         * Returns all the entries of the file.
+         *
+         * @return the entries, in the order of their lines.
+         */
+        public List<Entry> getEntries() {
+            return this.entries;
+        }
+
+        /**
+         * Returns the entries that were not in the last load.
+         *
+         * @return the added entries, in the order of their lines.
+         */
+        public List<Entry> getAdded() {
+            return this.added;
+        }
+
+        /**
+         * Returns the entries of the last load that are no longer in the file.
+         *
+         * @return the removed entries.
+         */
+        public List<Entry> getRemoved() {
+            return this.removed;
+        }
+
+        /**
+         * Returns the lines that couldn't be parsed.
+         *
+         * @return the errors, in the order of their lines.
+         */
+        public List<LineError> getErrors() {
+            return this.errors;
+        }
+    }
+
+    /**
+     * Lines to be parsed together, with the indexes of their entries.
+     */
+    private final class Batch {
+        private final int[] indexes = new int[BATCH_SIZE];
+        private final int[] lineNumbers = new int[BATCH_SIZE];
+        private final String[] lines = new String[BATCH_SIZE];
+        private final Entry[] entries = new Entry[BATCH_SIZE];
+        private final List<LineError> errors = new ArrayList<>();
+        private int size;
+
+        private Batch parse() {
+            for (int i = 0; i < this.size; i++) {
+                try {
+                    this.entries[i] = CrontabLoader.this.parse(this.lines[i]);
+                } catch (InvalidExpressionException ex) {
+                    this.errors.add(new LineError(this.lineNumbers[i], this.lines[i], ex));
+                }
+            }
+            return this;
+        }
+    }
+
+    private final int numberOfFields;
+    private final Executor executor;
+    private Map<String, List<Entry>> lastEntries = new HashMap<>();
+
+    /**
+     * Creates a loader of lines with 5 fields expressions, like crontab files,
+     * parsing them on the common fork-join pool.
+     */
+    public CrontabLoader() {
+        this(5, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a loader of lines with expressions of the provided number of
+     * fields.
+     *
+     * @param numberOfFields the number of fields of the expressions, 5 or 6 with
+     *                       the seconds field.
+     * @param executor       the executor parsing the lines.
+     */
+    public CrontabLoader(int numberOfFields, Executor executor) {
+        if (numberOfFields != 5 && numberOfFields != 6) {
+            throw new IllegalArgumentException("number of fields should be 5 or 6: " + numberOfFields);
+        }
+        this.numberOfFields = numberOfFields;
+        this.executor = executor;
+    }
+
+    /**
+     * Loads a UTF-8 crontab file.
+     *
+     * @param file the file to load.
+     * @return the entries of the file and the changes since the last load.
+     * @throws IOException if the file can't be read.
+     */
+    public Result load(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return this.load(reader);
+        }
+    }
+
+    /**
+     * Loads the lines of a reader. The reader isn't closed.
+     *
+     * @param reader the reader of the lines.
+     * @return the entries of the lines and the changes since the last load.
+     * @throws IOException if the reader fails.
+     */
+    public synchronized Result load(Reader reader) throws IOException {
+        BufferedReader lineReader = reader instanceof BufferedReader ? (BufferedReader) reader
+                : new BufferedReader(reader);
+        Map<String, ArrayDeque<Entry>> unmatched = new HashMap<>();
+        for (Map.Entry<String, List<Entry>> last : this.lastEntries.entrySet()) {
+            unmatched.put(last.getKey(), new ArrayDeque<>(last.getValue()));
+        }
+
+        // entries of lines being parsed are null until their batch is done
+        List<Entry> entries = new ArrayList<>();
+        List<CompletableFuture<Batch>> batches = new ArrayList<>();
+        Batch batch = new Batch();
+        int lineNumber = 0;
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            lineNumber++;
+            if (isBlankOrComment(line)) {
+                continue;
+            }
+            ArrayDeque<Entry> sameLines = unmatched.get(line);
+            if (sameLines != null && !sameLines.isEmpty()) {
+                entries.add(sameLines.poll());
+                continue;
+            }
+            batch.indexes[batch.size] = entries.size();
+            batch.lineNumbers[batch.size] = lineNumber;
+            batch.lines[batch.size] = line;
+            batch.size++;
+            entries.add(null);
+            if (batch.size == BATCH_SIZE) {
+                batches.add(CompletableFuture.supplyAsync(batch::parse, this.executor));
+                batch = new Batch();
+            }
+        }
+        if (batch.size > 0) {
+            batches.add(CompletableFuture.supplyAsync(batch::parse, this.executor));
+        }
+
+        List<Entry> added = new ArrayList<>();
+        List<LineError> errors = new ArrayList<>();
+        for (CompletableFuture<Batch> future : batches) {
+            Batch parsed = future.join();
+            for (int i = 0; i < parsed.size; i++) {
+                entries.set(parsed.indexes[i], parsed.entries[i]);
+                if (parsed.entries[i] != null) {
+                    added.add(parsed.entries[i]);
+                }
+            }
+            errors.addAll(parsed.errors);
+        }
+        if (!errors.isEmpty()) {
+            entries.removeIf(entry -> entry == null);
+        }
+
+        List<Entry> removed = new ArrayList<>();
+        for (ArrayDeque<Entry> sameLines : unmatched.values()) {
+            removed.addAll(sameLines);
+        }
+        Map<String, List<Entry>> lastEntries = new HashMap<>();
+        for (Entry entry : entries) {
+            lastEntries.computeIfAbsent(entry.line, key -> new ArrayList<>(1)).add(entry);
+        }
+        this.lastEntries = lastEntries;
+        return new Result(entries, added, removed, errors);
+    }
+
+    private Entry parse(String line) throws InvalidExpressionException {
+        int length = line.length();
+        int position = 0;
+        int fields = 0;
+        while (fields < this.numberOfFields) {
+            while (position < length && Schedule.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            if (position == length) {
+                break;
+            }
+            while (position < length && !Schedule.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            fields++;
+        }
+        int expressionEnd = position;
+        while (position < length && Schedule.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        if (position == length) {
+            throw new InvalidExpressionException(
+                    "crontab line should have " + this.numberOfFields + " fields followed by a command", length);
+        }
+        Schedule schedule = Schedule.create(line.substring(0, expressionEnd));
+        return new Entry(line, schedule, line.substring(position).trim());
+    }
+
+    private static boolean isBlankOrComment(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (!Schedule.isWhitespace(c)) {
+                return c == '#';
+            }
+        }
+        return true;
+    }
+}
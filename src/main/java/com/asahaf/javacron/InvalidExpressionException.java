@@ -3,19 +3,41 @@ package com.asahaf.javacron;
 public class InvalidExpressionException extends Exception {
     private static final long serialVersionUID = 1L;
 
+    private final int errorOffset;
+
     InvalidExpressionException() {
         super();
+        this.errorOffset = -1;
     }
 
     InvalidExpressionException(String message) {
         super(message);
+        this.errorOffset = -1;
+    }
+
+    InvalidExpressionException(String message, int errorOffset) {
+        super(message);
+        this.errorOffset = errorOffset;
     }
 
     InvalidExpressionException(String message, Throwable cause) {
         super(message, cause);
+        this.errorOffset = -1;
     }
 
     InvalidExpressionException(Throwable cause) {
         super(cause);
+        this.errorOffset = -1;
+    }
+
+    /**
+     * Returns the position in the expression where the error was found.
+     *
+     * @return the zero based offset of the error in the expression, or -1 if the
+     *         error is not related to a specific position, like a wrong number of
+     *         fields or a schedule that never occurs.
+     */
+    public int getErrorOffset() {
+        return this.errorOffset;
     }
 }
@@ -0,0 +1,83 @@
+package com.asahaf.javacron;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * Spliterator over the occurrences of a {@link Schedule} in a window of epoch
+ * seconds, the occurrences are reported as milliseconds from the epoch.
+ *
+ * <p>
+ * The occurrences are calculated lazily one at a time. Splitting divides the
+ * remaining window at a local day, hour or minute boundary, so each part of a
+ * parallel computation starts from a whole unit of the schedule.
+ */
+final class OccurrenceSpliterator implements Spliterator.OfLong {
+
+    private static final long[] SPLIT_UNITS = { 86400L, 3600L, 60L };
+
+    private final Schedule schedule;
+    private final ZoneOffsets offsets;
+    private final long end;
+    private long cursor;
+
+    /**
+     * @param cursor epoch second after which the first occurrence is searched.
+     * @param end    epoch second before which the occurrences are reported.
+     */
+    OccurrenceSpliterator(Schedule schedule, ZoneOffsets offsets, long cursor, long end) {
+        this.schedule = schedule;
+        this.offsets = offsets;
+        this.cursor = cursor;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (this.cursor >= this.end - 1) {
+            return false;
+        }
+        long next = this.schedule.nextEpochSecond(this.cursor, this.offsets);
+        if (next >= this.end) {
+            this.cursor = this.end - 1;
+            return false;
+        }
+        this.cursor = next;
+        action.accept(next * 1000L);
+        return true;
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        long first = this.cursor + 1;
+        long middle = first + (this.end - first) / 2;
+        for (long unit : SPLIT_UNITS) {
+            long local = this.offsets.toLocal(middle);
+            long split = this.offsets.toEpochSecond(local - Math.floorMod(local, unit));
+            if (split > first && split < this.end) {
+                OccurrenceSpliterator prefix = new OccurrenceSpliterator(this.schedule, this.offsets, this.cursor,
+                        split);
+                this.cursor = split - 1;
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return Math.max(0, this.end - this.cursor - 1);
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL
+                | Spliterator.IMMUTABLE;
+    }
+
+    @Override
+    public Comparator<? super Long> getComparator() {
+        return null;
+    }
+}
@@ -0,0 +1,105 @@
+package com.asahaf.javacron;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * The result of parsing many expressions with
+ * {@link Schedule#createAll(Collection)}, holding the schedules of the valid
+ * expressions and the errors of the invalid ones.
+ *
+ * <pre>
+ * ParsedSchedules parsed = Schedule.createAll(expressions);
+ * for (Map.Entry&lt;String, InvalidExpressionException&gt; failure : parsed.getFailures().entrySet()) {
+ *     log.warn("invalid expression {}: {}", failure.getKey(), failure.getValue().getMessage());
+ * }
+ * Schedule schedule = parsed.get("0 9 * * mon-fri");
+ * </pre>
+ *
+ * <p>
+ * Each distinct expression is parsed once, and expressions of equal schedules
+ * share a single {@link Schedule} object.
+ */
+public final class ParsedSchedules {
+
+    private final Map<String, Schedule> schedules;
+    private final Map<String, InvalidExpressionException> failures;
+
+    private ParsedSchedules(Map<String, Schedule> schedules, Map<String, InvalidExpressionException> failures) {
+        this.schedules = Collections.unmodifiableMap(schedules);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Parses distinct expressions in parallel on the common fork-join pool.
+     */
+    static ParsedSchedules parse(Collection<String> distinctExpressions) {
+        String[] expressions = distinctExpressions.toArray(new String[0]);
+        Schedule[] parsed = new Schedule[expressions.length];
+        InvalidExpressionException[] errors = new InvalidExpressionException[expressions.length];
+        IntStream.range(0, expressions.length).parallel().forEach(i -> {
+            try {
+                parsed[i] = Schedule.create(expressions[i]);
+            } catch (InvalidExpressionException ex) {
+                errors[i] = ex;
+            }
+        });
+
+        Map<String, Schedule> schedules = new LinkedHashMap<>();
+        Map<String, InvalidExpressionException> failures = new LinkedHashMap<>();
+        Map<Schedule, Schedule> shared = new HashMap<>();
+        for (int i = 0; i < expressions.length; i++) {
+            if (parsed[i] != null) {
+                Schedule existing = shared.putIfAbsent(parsed[i], parsed[i]);
+                schedules.put(expressions[i], existing != null ? existing : parsed[i]);
+            } else {
+                failures.put(expressions[i], errors[i]);
+            }
+        }
+        return new ParsedSchedules(schedules, failures);
+    }
+
+    /**
+     * Returns the schedules of the valid expressions.
+     *
+     * @return map of each valid expression to its schedule, in the order the
+     *         expressions were first provided.
+     */
+    public Map<String, Schedule> getSchedules() {
+        return this.schedules;
+    }
+
+    /**
+     * Returns the errors of the invalid expressions.
+     *
+     * @return map of each invalid expression to its error, in the order the
+     *         expressions were first provided.
+     */
+    public Map<String, InvalidExpressionException> getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * Returns the schedule of a valid expression.
+     *
+     * @param expression one of the parsed expressions.
+     * @return the schedule of the expression, or {@code null} if the expression
+     *         is invalid or wasn't parsed.
+     */
+    public Schedule get(String expression) {
+        return this.schedules.get(expression);
+    }
+
+    /**
+     * Returns whether any of the expressions is invalid.
+     *
+     * @return {@code true} if there are failures; {@code false} otherwise.
+     */
+    public boolean hasFailures() {
+        return !this.failures.isEmpty();
+    }
+}
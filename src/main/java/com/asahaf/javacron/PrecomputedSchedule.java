@@ -0,0 +1,217 @@
+package com.asahaf.javacron;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A view of a schedule with its occurrences precomputed for an upcoming
+ * horizon, for schedules that are asked for their next occurrence over and over
+ * in the same window.
+ *
+ * <p>
+ * The occurrences of the horizon are kept in a sorted array of seconds from the
+ * start of the window, 4 bytes per occurrence, so the next occurrence, a match
+ * or a count in the window is a binary search. Once more than half of the
+ * horizon has passed, a new window starting from the current query is computed
+ * in the background and replaces the old one. A query further than half of the
+ * horizon after the end of the window, like a lookup days ahead, doesn't move
+ * the window, unless the current time is past half of the horizon as well, in
+ * which case the new window starts from the current time. Queries outside of
+ * the window are answered by the schedule itself, so the results are always
+ * the same as the methods of {@link Schedule} with the same zone.
+ *
+ * <pre>
+ * PrecomputedSchedule schedule = Schedule.create("*&#47;5 * * * * *").precompute(Duration.ofHours(6), zone);
+ * long next = schedule.nextEpochMillis(System.currentTimeMillis());
+ * </pre>
+ *
+ * <p>
+ * A precomputed schedule is thread-safe.
+ *
+ * @see Schedule#precompute(Duration, ZoneId)
+ */
+public final class PrecomputedSchedule {
+
+    /**
+     * The precomputed occurrences from {@code start} (inclusive) to {@code end}
+     * (exclusive), in epoch seconds.
+     */
+    private static final class Window {
+        private final long start;
+        private final long end;
+        // occurrences in seconds from the start, in ascending order
+        private final int[] times;
+
+        private Window(long start, long end, int[] times) {
+            this.start = start;
+            this.end = end;
+            this.times = times;
+        }
+
+        private boolean contains(long epochSecond) {
+            return this.start <= epochSecond && epochSecond < this.end;
+        }
+
+        /**
+         * Returns the index of the first occurrence at or after the epoch second,
+         * which must be in the window or at its end.
+         */
+        private int indexOf(long epochSecond) {
+            int index = Arrays.binarySearch(this.times, (int) (epochSecond - this.start));
+            return index < 0 ? -index - 1 : index;
+        }
+    }
+
+    private final Schedule schedule;
+    private final ZoneOffsets offsets;
+    private final long horizonSeconds;
+    private final Executor executor;
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private volatile Window window;
+
+    PrecomputedSchedule(Schedule schedule, ZoneId zone, Duration horizon, long startEpochMillis, Executor executor) {
+        if (horizon.getSeconds() < 1 || horizon.getSeconds() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "horizon should be between 1 second and " + Integer.MAX_VALUE + " seconds: " + horizon);
+        }
+        this.schedule = schedule;
+        this.offsets = ZoneOffsets.of(zone);
+        this.horizonSeconds = horizon.getSeconds();
+        this.executor = executor;
+        this.window = this.fill(Math.floorDiv(startEpochMillis, 1000L));
+    }
+
+    /**
+     * Returns the schedule whose occurrences are precomputed.
+     *
+     * @return the schedule.
+     */
+    public Schedule getSchedule() {
+        return this.schedule;
+    }
+
+    /**
+     * Returns the length of the window of precomputed occurrences.
+     *
+     * @return the horizon.
+     */
+    public Duration getHorizon() {
+        return Duration.ofSeconds(this.horizonSeconds);
+    }
+
+    /**
+     * Calculates the next occurrence based on provided base time.
+     *
+     * @param baseEpochMillis milliseconds from the epoch based on which calculating
+     *                        the next occurrence.
+     * @return milliseconds from the epoch of the next occurrence.
+     * @see Schedule#nextEpochMillis(long, ZoneId)
+     */
+    public long nextEpochMillis(long baseEpochMillis) {
+        long baseEpochSecond = Math.floorDiv(baseEpochMillis, 1000L);
+        Window window = this.window(baseEpochSecond);
+        if (window.contains(baseEpochSecond)) {
+            int index = window.indexOf(baseEpochSecond + 1);
+            if (index < window.times.length) {
+                return (window.start + window.times[index]) * 1000L;
+            }
+        }
+        return this.schedule.nextEpochSecond(baseEpochSecond, this.offsets) * 1000L;
+    }
+
+    /**
+     * Checks whether the schedule occurs at the provided epoch second.
+     *
+     * @param epochSecond seconds from the epoch of 1970-01-01T00:00:00Z.
+     * @return {@code true} if the schedule occurs at the epoch second;
+     *         {@code false} otherwise.
+     * @see Schedule#matches(long, ZoneId)
+     */
+    public boolean matches(long epochSecond) {
+        Window window = this.window(epochSecond);
+        if (window.contains(epochSecond)) {
+            return Arrays.binarySearch(window.times, (int) (epochSecond - window.start)) >= 0;
+        }
+        return this.schedule.matches(epochSecond, this.offsets);
+    }
+
+    /**
+     * Counts the occurrences in the window from {@code fromEpochMillis}
+     * (inclusive) to {@code toEpochMillis} (exclusive).
+     *
+     * @param fromEpochMillis start of the window, inclusive.
+     * @param toEpochMillis   end of the window, exclusive.
+     * @return number of occurrences in the window.
+     * @see Schedule#countOccurrences(long, long, ZoneId)
+     */
+    public long countOccurrences(long fromEpochMillis, long toEpochMillis) {
+        long fromEpochSecond = Schedule.ceilEpochSecond(fromEpochMillis);
+        long toEpochSecond = Schedule.ceilEpochSecond(toEpochMillis);
+        if (fromEpochSecond >= toEpochSecond) {
+            return 0;
+        }
+        Window window = this.window(fromEpochSecond);
+        if (window.contains(fromEpochSecond) && toEpochSecond <= window.end) {
+            return window.indexOf(toEpochSecond) - window.indexOf(fromEpochSecond);
+        }
+        return this.schedule.countOccurrences(fromEpochSecond, toEpochSecond, this.offsets);
+    }
+
+    long windowStart() {
+        return this.window.start;
+    }
+
+    /**
+     * Returns the current window, and starts a refill if more than half of the
+     * horizon has passed. The refill starts from the provided time if it's close
+     * to the window, or from the current time if only the clock says the window
+     * is getting stale, so that a far away query doesn't strand the queries of
+     * the current time out of the window.
+     */
+    private Window window(long epochSecond) {
+        Window window = this.window;
+        long refillFrom = window.start + this.horizonSeconds / 2;
+        if (epochSecond < refillFrom) {
+            return window;
+        }
+        if (epochSecond >= window.end + this.horizonSeconds / 2) {
+            long now = Math.floorDiv(System.currentTimeMillis(), 1000L);
+            if (now < refillFrom) {
+                return window;
+            }
+            epochSecond = now;
+        }
+        if (this.refilling.compareAndSet(false, true)) {
+            final long start = epochSecond;
+            try {
+                this.executor.execute(() -> {
+                    try {
+                        this.window = this.fill(start);
+                    } finally {
+                        this.refilling.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                // queries out of the window are still answered by the schedule,
+                // the refill is attempted again by the next query
+                this.refilling.set(false);
+            }
+        }
+        return window;
+    }
+
+    private Window fill(long start) {
+        long end = start + this.horizonSeconds;
+        int[] times = new int[(int) this.schedule.countOccurrences(start, end, this.offsets)];
+        long next = this.schedule.nextEpochSecond(start - 1, this.offsets);
+        for (int i = 0; i < times.length; i++) {
+            times[i] = (int) (next - start);
+            next = this.schedule.nextEpochSecond(next, this.offsets);
+        }
+        return new Window(start, end, times);
+    }
+}
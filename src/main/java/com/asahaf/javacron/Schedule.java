@@ -1,10 +1,29 @@
 package com.asahaf.javacron;
 
-import java.time.YearMonth;
-import java.util.BitSet;
-import java.util.Calendar;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Date;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.asahaf.javacron.ValidationResult.ErrorCode;
 
 /**
  * Schedule class represents a parsed crontab expression.
@@ -28,22 +47,46 @@ public class Schedule implements Comparable<Schedule> {
     private final static CronFieldParser DAYS_FIELD_PARSER = new CronFieldParser(CronFieldType.DAY);
     private final static CronFieldParser MONTHS_FIELD_PARSER = new CronFieldParser(CronFieldType.MONTH);
     private final static CronFieldParser DAY_OF_WEEK_FIELD_PARSER = new CronFieldParser(CronFieldType.DAY_OF_WEEK);
+    // the parsers in the order of CronFieldType
+    private final static CronFieldParser[] FIELD_PARSERS = { SECONDS_FIELD_PARSER, MINUTES_FIELD_PARSER,
+            HOURS_FIELD_PARSER, DAYS_FIELD_PARSER, MONTHS_FIELD_PARSER, DAY_OF_WEEK_FIELD_PARSER };
+
+    private final static long SECONDS_PER_DAY = 86400L;
+    private final static long MONTH_DAYS_MASK = (1L << 31) - 1;
+
+    /**
+     * The number of bytes of a schedule written by {@link #writeTo(ByteBuffer)}.
+     */
+    public static final int BINARY_SIZE = 28;
+
+    private static final byte BINARY_VERSION = 1;
+    private static final int HAS_SECONDS_FIELD_FLAG = 1;
+    private static final int DAYS_UNION_FLAG = 1 << 1;
+    private static final int LAST_DAY_OF_MONTH_FLAG = 1 << 2;
+    private static final int SPECIFIC_LAST_DAY_OF_MONTH_FLAG = 1 << 3;
 
     private Schedule() {
     }
 
+    // Each field is stored as a bit mask where bit i represents the i-th
+    // allowed value of the field (e.g. bit 0 of days is the 1st day of month).
     private String expression;
     private boolean hasSecondsField;
     private DaysAndDaysOfWeekRelation daysAndDaysOfWeekRelation;
-    private BitSet seconds;
-    private BitSet minutes;
-    private BitSet hours;
-    private BitSet days;
-    private BitSet months;
-    private BitSet daysOfWeek;
-    private BitSet daysOf5Weeks;
+    private long seconds;
+    private long minutes;
+    private long hours;
+    private long days;
+    private long months;
+    private long daysOfWeek;
+    private long daysOf5Weeks;
     private boolean isLastDayOfMonth;
     private boolean isSpecificLastDayOfMonth;
+    // period and offset in local seconds of schedules occurring at a fixed
+    // period every day, or 0 if the schedule isn't periodic
+    private long fixedPeriod;
+    private long fixedPeriodOffset;
+    private int hashCode;
 
     /**
      * Parses crontab expression and create a Schedule object representing that
@@ -93,71 +136,204 @@ public class Schedule implements Comparable<Schedule> {
      *                                    never occurs.
      */
     public static Schedule create(String expression) throws InvalidExpressionException {
-        if (expression.isEmpty()) {
-            throw new InvalidExpressionException("empty expression");
+        // start and end offsets of the fields, with room for one extra field to
+        // detect expressions with too many fields
+        int[] bounds = new int[14];
+        Schedule schedule = new Schedule();
+        long error = schedule.parse(expression, bounds);
+        if (error != ValidationResult.NO_ERROR) {
+            throw schedule.exceptionOf(expression, bounds, error);
+        }
+        schedule.normalizeDays();
+        schedule.daysOf5Weeks = generateDaysOf5Weeks(schedule.daysOfWeek);
+        schedule.computeFixedPeriod();
+        schedule.hashCode = schedule.computeHashCode();
+        schedule.expression = expression.trim();
+        return schedule;
+    }
+
+    /**
+     * Checks whether a crontab expression is valid, without creating a schedule.
+     *
+     * <p>
+     * The expression is parsed like {@link #create(String)}, but an invalid
+     * expression is described by the returned result instead of an exception, so
+     * no exception, stack trace or error message is built. It's meant for
+     * validating untrusted expressions at a high rate, when many of them are
+     * expected to be invalid.
+     *
+     * @param expression a crontab expression.
+     * @return the result of the validation, with the error code, field and offset
+     *         of the error of an invalid expression. The error offset is the same
+     *         one {@link #create(String)} reports.
+     */
+    public static ValidationResult validate(CharSequence expression) {
+        return ValidationResult.of(new Schedule().parse(expression, new int[14]));
+    }
+
+    /**
+     * Parses an expression into the fields of this schedule, the non-throwing
+     * core of {@link #create(String)} and {@link #validate(CharSequence)}. The
+     * offsets of the fields are stored in {@code bounds}.
+     *
+     * @return {@link ValidationResult#NO_ERROR}, or the error of an invalid
+     *         expression packed by {@link ValidationResult}.
+     */
+    private long parse(CharSequence expression, int[] bounds) {
+        if (expression.length() == 0) {
+            return ValidationResult.error(ErrorCode.EMPTY, -1);
+        }
+        int count = 0;
+        int length = expression.length();
+        int position = 0;
+        while (count < 7) {
+            while (position < length && isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+            if (position == length) {
+                break;
+            }
+            bounds[count * 2] = position;
+            while (position < length && !isWhitespace(expression.charAt(position))) {
+                position++;
+            }
+            bounds[count * 2 + 1] = position;
+            count++;
         }
-        String[] fields = expression.trim().toLowerCase().split("\\s+");
-        int count = fields.length;
         if (count > 6 || count < 5) {
-            throw new InvalidExpressionException(
-                    "crontab expression should have 6 fields for (seconds resolution) or 5 fields for (minutes resolution)");
+            return ValidationResult.error(ErrorCode.FIELD_COUNT, count > 6 ? bounds[12] : -1);
         }
-        Schedule schedule = new Schedule();
-        schedule.hasSecondsField = count == 6;
-        String token;
+        this.hasSecondsField = count == 6;
         int index = 0;
-        if (schedule.hasSecondsField) {
-            token = fields[index++];
-            schedule.seconds = Schedule.SECONDS_FIELD_PARSER.parse(token);
+        if (this.hasSecondsField) {
+            this.seconds = Schedule.SECONDS_FIELD_PARSER.scan(expression, bounds[index], bounds[index + 1]);
+            if (this.seconds < 0) {
+                return ValidationResult.withField(this.seconds, CronFieldType.SECOND);
+            }
+            index += 2;
         } else {
-            schedule.seconds = new BitSet(1);
-            schedule.seconds.set(0);
-        }
-        token = fields[index++];
-        schedule.minutes = Schedule.MINUTES_FIELD_PARSER.parse(token);
-
-        token = fields[index++];
-        schedule.hours = Schedule.HOURS_FIELD_PARSER.parse(token);
-
-        String daysToken = fields[index++];
-        schedule.days = Schedule.DAYS_FIELD_PARSER.parse(daysToken);
-        schedule.isLastDayOfMonth = "l".equals(daysToken);
-        boolean daysStartWithAsterisk = false;
-        if (daysToken.startsWith("*"))
-            daysStartWithAsterisk = true;
-
-        token = fields[index++];
-        schedule.months = Schedule.MONTHS_FIELD_PARSER.parse(token);
-
-        token = fields[index++];
-        schedule.daysOfWeek = Schedule.DAY_OF_WEEK_FIELD_PARSER.parse(token);
-        boolean daysOfWeekStartAsterisk = false;
-        if (token.startsWith("*"))
-            daysOfWeekStartAsterisk = true;
-
-        if (token.length() == 2 && token.endsWith("l")) {
-            if(schedule.isLastDayOfMonth) {
-                throw new InvalidExpressionException(
-                        "You can only specify the last day of month week in either the DAY field or in the DAY_OF_WEEK field, not both.");
-            } else if (!daysToken.equalsIgnoreCase("*")) {
-                throw new InvalidExpressionException(
-                        "when last days of month is specified. the day of the month must be \"*\"");
+            this.seconds = 1L;
+        }
+        this.minutes = Schedule.MINUTES_FIELD_PARSER.scan(expression, bounds[index], bounds[index + 1]);
+        if (this.minutes < 0) {
+            return ValidationResult.withField(this.minutes, CronFieldType.MINUTE);
+        }
+        index += 2;
+
+        this.hours = Schedule.HOURS_FIELD_PARSER.scan(expression, bounds[index], bounds[index + 1]);
+        if (this.hours < 0) {
+            return ValidationResult.withField(this.hours, CronFieldType.HOUR);
+        }
+        index += 2;
+
+        int daysStart = bounds[index];
+        int daysEnd = bounds[index + 1];
+        this.days = Schedule.DAYS_FIELD_PARSER.scan(expression, daysStart, daysEnd);
+        if (this.days < 0) {
+            return ValidationResult.withField(this.days, CronFieldType.DAY);
+        }
+        this.isLastDayOfMonth = daysEnd - daysStart == 1
+                && CronFieldParser.isLastMarker(expression.charAt(daysStart));
+        boolean daysStartWithAsterisk = expression.charAt(daysStart) == '*';
+        index += 2;
+
+        this.months = Schedule.MONTHS_FIELD_PARSER.scan(expression, bounds[index], bounds[index + 1]);
+        if (this.months < 0) {
+            return ValidationResult.withField(this.months, CronFieldType.MONTH);
+        }
+        index += 2;
+
+        int daysOfWeekStart = bounds[index];
+        int daysOfWeekEnd = bounds[index + 1];
+        this.daysOfWeek = Schedule.DAY_OF_WEEK_FIELD_PARSER.scan(expression, daysOfWeekStart, daysOfWeekEnd);
+        if (this.daysOfWeek < 0) {
+            return ValidationResult.withField(this.daysOfWeek, CronFieldType.DAY_OF_WEEK);
+        }
+        boolean daysOfWeekStartAsterisk = expression.charAt(daysOfWeekStart) == '*';
+
+        if (daysOfWeekEnd - daysOfWeekStart == 2
+                && CronFieldParser.isLastMarker(expression.charAt(daysOfWeekStart + 1))) {
+            if(this.isLastDayOfMonth) {
+                return ValidationResult.withField(ValidationResult.error(ErrorCode.LAST_DAY_CONFLICT, daysOfWeekStart),
+                        CronFieldType.DAY_OF_WEEK);
+            } else if (daysEnd - daysStart != 1 || !daysStartWithAsterisk) {
+                return ValidationResult.withField(
+                        ValidationResult.error(ErrorCode.LAST_DAY_OF_WEEK_WITH_DAYS, daysStart), CronFieldType.DAY);
             }
             // this flag will be used later duing finding the next schedual
             // this is because some months has less than 31 days
-            schedule.isSpecificLastDayOfMonth = true;
+            this.isSpecificLastDayOfMonth = true;
         }
-        schedule.daysOf5Weeks = generateDaysOf5Weeks(schedule.daysOfWeek);
-
-        schedule.daysAndDaysOfWeekRelation = (daysStartWithAsterisk || daysOfWeekStartAsterisk)
+        this.daysAndDaysOfWeekRelation = (daysStartWithAsterisk || daysOfWeekStartAsterisk)
                 ? DaysAndDaysOfWeekRelation.INTERSECT
                 : DaysAndDaysOfWeekRelation.UNION;
 
-        if (!schedule.canScheduleActuallyOccur())
-            throw new InvalidExpressionException(
-                    "schedule can not occur. the specified months do not have the day 30th or the day 31st");
-        schedule.expression = expression.trim();
-        return schedule;
+        if (!this.canScheduleActuallyOccur()) {
+            return ValidationResult.error(ErrorCode.NEVER_OCCURS, -1);
+        }
+        return ValidationResult.NO_ERROR;
+    }
+
+    /**
+     * Builds the exception of an error returned by
+     * {@link #parse(CharSequence, int[])}, with the messages create has always
+     * reported.
+     */
+    private InvalidExpressionException exceptionOf(CharSequence expression, int[] bounds, long error) {
+        switch (ValidationResult.codeOf(error)) {
+            case EMPTY:
+                return new InvalidExpressionException("empty expression");
+            case FIELD_COUNT:
+                return new InvalidExpressionException(
+                        "crontab expression should have 6 fields for (seconds resolution) or 5 fields for (minutes resolution)",
+                        ValidationResult.offsetOf(error));
+            case LAST_DAY_CONFLICT:
+                return new InvalidExpressionException(
+                        "You can only specify the last day of month week in either the DAY field or in the DAY_OF_WEEK field, not both.",
+                        ValidationResult.offsetOf(error));
+            case LAST_DAY_OF_WEEK_WITH_DAYS:
+                return new InvalidExpressionException(
+                        "when last days of month is specified. the day of the month must be \"*\"",
+                        ValidationResult.offsetOf(error));
+            case NEVER_OCCURS:
+                return new InvalidExpressionException(
+                        "schedule can not occur. the specified months do not have the day 30th or the day 31st");
+            default:
+                // errors of the values of a field
+                CronFieldType field = ValidationResult.fieldOf(error);
+                int index = (field.ordinal() - (this.hasSecondsField ? 0 : 1)) * 2;
+                return Schedule.FIELD_PARSERS[field.ordinal()].exceptionOf(expression, bounds[index],
+                        bounds[index + 1], error);
+        }
+    }
+
+    /**
+     * Parses many crontab expressions in parallel on the common fork-join pool,
+     * collecting the errors of invalid expressions instead of throwing them.
+     *
+     * <p>
+     * Identical expressions are parsed once, and expressions of equal schedules
+     * share a single Schedule object.
+     *
+     * @param expressions the crontab expressions to parse.
+     * @return the schedules of the valid expressions and the errors of the
+     *         invalid ones.
+     * @see #create(String)
+     */
+    public static ParsedSchedules createAll(Collection<String> expressions) {
+        return ParsedSchedules.parse(new LinkedHashSet<>(expressions));
+    }
+
+    /**
+     * Parses the crontab expressions of a stream in parallel on the common
+     * fork-join pool, as described in {@link #createAll(Collection)}.
+     *
+     * @param expressions the crontab expressions to parse.
+     * @return the schedules of the valid expressions and the errors of the
+     *         invalid ones.
+     */
+    public static ParsedSchedules createAll(Stream<String> expressions) {
+        return ParsedSchedules.parse(expressions.collect(Collectors.toCollection(LinkedHashSet::new)));
     }
 
     /**
@@ -166,96 +342,19 @@ public class Schedule implements Comparable<Schedule> {
      * @return Date object of the next occurrence.
      */
     public Date next() {
-        return this.next(new Date());
+        return new Date(this.nextEpochMillis(System.currentTimeMillis(), ZoneId.systemDefault()));
     }
 
     /**
      * Calculates the next occurrence based on provided base time.
      *
+     * The fields of the schedule are evaluated in the system default time zone.
+     *
      * @param baseDate Date object based on which calculating the next occurrence.
      * @return Date object of the next occurrence.
      */
     public Date next(Date baseDate) {
-        int baseSecond = baseDate.getSeconds();
-        int baseMinute = baseDate.getMinutes();
-        int baseHour = baseDate.getHours();
-        int baseDay = baseDate.getDate();
-        int baseMonth = baseDate.getMonth();
-        int baseYear = baseDate.getYear();
-
-        int second = baseSecond;
-        int minute = baseMinute;
-        int hour = baseHour;
-        int day = baseDay;
-        int month = baseMonth;
-        int year = baseYear;
-
-        if (this.hasSecondsField) {
-            second++;
-            second = this.seconds.nextSetBit(second);
-            if (second < 0) {
-                second = this.seconds.nextSetBit(0);
-                minute++;
-            }
-        } else {
-            minute++;
-        }
-
-        minute = this.minutes.nextSetBit(minute);
-        if (minute < 0) {
-            hour++;
-            second = this.seconds.nextSetBit(0);
-            minute = this.minutes.nextSetBit(0);
-        } else if (minute > baseMinute) {
-            second = this.seconds.nextSetBit(0);
-        }
-
-        hour = this.hours.nextSetBit(hour);
-        if (hour < 0) {
-            day++;
-            second = this.seconds.nextSetBit(0);
-            minute = this.minutes.nextSetBit(0);
-            hour = this.hours.nextSetBit(0);
-        } else if (hour > baseHour) {
-            second = this.seconds.nextSetBit(0);
-            minute = this.minutes.nextSetBit(0);
-        }
-
-        int candidateDay;
-        int candidateMonth;
-        while (true) {
-            candidateMonth = this.months.nextSetBit(month);
-            if (candidateMonth < 0) {
-                year++;
-                second = this.seconds.nextSetBit(0);
-                minute = this.minutes.nextSetBit(0);
-                hour = this.hours.nextSetBit(0);
-                day = 1;
-                candidateMonth = this.months.nextSetBit(0);
-            } else if (candidateMonth > month) {
-                second = this.seconds.nextSetBit(0);
-                minute = this.minutes.nextSetBit(0);
-                hour = this.hours.nextSetBit(0);
-                day = 1;
-            }
-            month = candidateMonth;
-            BitSet adjustedDaysSet = getUpdatedDays(this, year, month);
-            candidateDay = adjustedDaysSet.nextSetBit(day - 1) + 1;
-            if (candidateDay < 1) {
-                month++;
-                second = this.seconds.nextSetBit(0);
-                minute = this.minutes.nextSetBit(0);
-                hour = this.hours.nextSetBit(0);
-                day = 1;
-                continue;
-            } else if (candidateDay > day) {
-                second = this.seconds.nextSetBit(0);
-                minute = this.minutes.nextSetBit(0);
-                hour = this.hours.nextSetBit(0);
-            }
-            day = candidateDay;
-            return new Date(year, month, day, hour, minute, second);
-        }
+        return new Date(this.nextEpochMillis(baseDate.getTime(), ZoneId.systemDefault()));
     }
 
     /**
@@ -265,13 +364,7 @@ public class Schedule implements Comparable<Schedule> {
      * @return Array of Date objects of the next N occurrences.
      */
     public Date[] next(int count) {
-        Date[] dates = new Date[count];
-        Date baseDate = new Date();
-        for (int i = 0; i < dates.length; i++) {
-            baseDate = this.next(baseDate);
-            dates[i] = baseDate;
-        }
-        return dates;
+        return this.next(System.currentTimeMillis(), count);
     }
 
     /**
@@ -282,175 +375,1490 @@ public class Schedule implements Comparable<Schedule> {
      * @return Array of Date objects of the next N occurrences.
      */
     public Date[] next(Date baseDate, int count) {
+        return this.next(baseDate.getTime(), count);
+    }
+
+    private Date[] next(long baseEpochMillis, int count) {
+        ZoneId zone = ZoneId.systemDefault();
         Date[] dates = new Date[count];
         for (int i = 0; i < dates.length; i++) {
-            baseDate = this.next(baseDate);
-            dates[i] = baseDate;
+            baseEpochMillis = this.nextEpochMillis(baseEpochMillis, zone);
+            dates[i] = new Date(baseEpochMillis);
         }
         return dates;
     }
 
     /**
-     * Calculates the number of time units from the current time to the next
-     * occurrence.
+     * Calculates the next occurrence based on provided base time, given as
+     * milliseconds from the epoch of 1970-01-01T00:00:00Z.
      *
-     * @param timeUnit time unit in which the returned value should be.
-     * @return number of time units from the current time to the next occurrence.
+     * <p>
+     * The fields of the schedule are evaluated on the wall-clock of the provided
+     * time zone. An occurrence that falls in a gap of the time zone (e.g. when
+     * clocks are set forward for daylight saving) is shifted forward by the length
+     * of the gap, so every skipped occurrence still happens once, in order, in
+     * the window right after the gap. An occurrence that falls in an overlap (e.g.
+     * when clocks are set back) happens only once, at the earlier of the two
+     * instants.
+     *
+     * @param baseEpochMillis milliseconds from the epoch based on which calculating
+     *                        the next occurrence.
+     * @param zone            time zone in which the schedule is evaluated.
+     * @return milliseconds from the epoch of the next occurrence.
      */
-    public long nextDuration(TimeUnit timeUnit) {
-        Date baseDate = new Date();
-        long diff = this.next(baseDate).getTime() - baseDate.getTime();
-        return timeUnit.convert(diff, TimeUnit.MILLISECONDS);
+    public long nextEpochMillis(long baseEpochMillis, ZoneId zone) {
+        return this.nextEpochSecond(Math.floorDiv(baseEpochMillis, 1000L), ZoneOffsets.of(zone)) * 1000L;
     }
 
     /**
-     * Calculates the number of time units from the provided base time to the next
-     * occurrence.
+     * Calculates the next occurrence of each of the provided base times, given as
+     * milliseconds from the epoch, in a single pass over the timeline.
      *
-     * @param baseDate Date object based on which calculating the next occurrence.
-     * @param timeUnit time unit in which the returned value should be.
-     * @return number of time units from the provided base time to the next
-     *         occurrence.
+     * <p>
+     * The result of a base time is reused for the following base times that are
+     * before it, so a run of base times between two occurrences costs a single
+     * calculation. The base times should be sorted in ascending order to benefit
+     * from this, unsorted base times are still calculated correctly. Base times
+     * that are each followed by a different occurrence, like those of a schedule
+     * running every second, cost about as much as calling
+     * {@link #nextEpochMillis(long, ZoneId)} for each of them.
+     *
+     * @param sortedBaseEpochMillis base times in milliseconds from the epoch,
+     *                              sorted in ascending order.
+     * @param out                   array receiving the next occurrence of each
+     *                              base time at the same index, in milliseconds
+     *                              from the epoch. It may be the same array as
+     *                              the base times.
+     * @param zone                  time zone in which the schedule is evaluated.
+     * @throws IllegalArgumentException if the output array is shorter than the
+     *                                  base times array.
+     * @see #nextEpochMillis(long, ZoneId)
      */
-    public long nextDuration(Date baseDate, TimeUnit timeUnit) {
-        long diff = this.next(baseDate).getTime() - baseDate.getTime();
-        return timeUnit.convert(diff, TimeUnit.MILLISECONDS);
+    public void nextBatch(long[] sortedBaseEpochMillis, long[] out, ZoneId zone) {
+        if (out.length < sortedBaseEpochMillis.length) {
+            throw new IllegalArgumentException("output array is shorter than the base times: " + out.length + " < "
+                    + sortedBaseEpochMillis.length);
+        }
+        ZoneOffsets offsets = ZoneOffsets.of(zone);
+        long previousBase = Long.MAX_VALUE;
+        long next = Long.MIN_VALUE;
+        for (int i = 0; i < sortedBaseEpochMillis.length; i++) {
+            long base = sortedBaseEpochMillis[i];
+            // there are no occurrences between the previous base and its next
+            // occurrence, so it's also the next occurrence of the bases between them
+            if (base < previousBase || base >= next) {
+                next = this.nextEpochSecond(Math.floorDiv(base, 1000L), offsets) * 1000L;
+            }
+            previousBase = base;
+            out[i] = next;
+        }
     }
 
     /**
-     * Compare two {@code Schedule} objects based on next occurrence.
+     * Calculates the next occurrence based on provided base time.
      *
-     * The next occurrences are calculated based on the current time.
+     * <p>
+     * The fields of the schedule are evaluated on the wall-clock of the zone of
+     * the base time, gaps and overlaps of the zone are handled as described in
+     * {@link #nextEpochMillis(long, ZoneId)}.
      *
-     * @param anotherSchedule the {@code Schedule} to be compared.
-     * @return the value {@code 0} if this {@code Schedule} next occurrence is equal
-     *         to the argument {@code Schedule} next occurrence; a value less than
-     *         {@code 0} if this {@code Schedule} next occurrence is before the
-     *         argument {@code Schedule} next occurrence; and a value greater than
-     *         {@code 0} if this {@code Schedule} next occurrence is after the
-     *         argument {@code Schedule} next occurrence.
+     * @param baseDateTime date-time based on which calculating the next
+     *                     occurrence.
+     * @return date-time of the next occurrence in the zone of the base time.
      */
-    @Override
-    public int compareTo(Schedule anotherSchedule) {
-        if (anotherSchedule == this) {
-            return 0;
+    public ZonedDateTime next(ZonedDateTime baseDateTime) {
+        ZoneId zone = baseDateTime.getZone();
+        long epochSecond = this.nextEpochSecond(baseDateTime.toEpochSecond(), ZoneOffsets.of(zone));
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+    }
+
+    /**
+     * Calculates the next occurrence based on provided base instant.
+     *
+     * <p>
+     * The fields of the schedule are evaluated on the wall-clock of the provided
+     * time zone, gaps and overlaps of the zone are handled as described in
+     * {@link #nextEpochMillis(long, ZoneId)}.
+     *
+     * @param baseInstant instant based on which calculating the next occurrence.
+     * @param zone        time zone in which the schedule is evaluated.
+     * @return instant of the next occurrence.
+     */
+    public Instant next(Instant baseInstant, ZoneId zone) {
+        return Instant.ofEpochSecond(this.nextEpochSecond(baseInstant.getEpochSecond(), ZoneOffsets.of(zone)));
+    }
+
+    /**
+     * Calculates the next occurrence based on provided local date-time.
+     *
+     * <p>
+     * The schedule is evaluated on the wall-clock without a time zone, every local
+     * date-time exists exactly once.
+     *
+     * @param baseDateTime local date-time based on which calculating the next
+     *                     occurrence.
+     * @return local date-time of the next occurrence.
+     */
+    public LocalDateTime next(LocalDateTime baseDateTime) {
+        long local = this.nextLocal(baseDateTime.toEpochSecond(ZoneOffset.UTC));
+        return LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC);
+    }
+
+    long nextEpochSecond(long baseEpochSecond, ZoneOffsets offsets) {
+        if (this.fixedPeriod != 0 && offsets.isFixedOffset()) {
+            long local = offsets.toLocal(baseEpochSecond);
+            return offsets.toEpochSecond(
+                    local + this.fixedPeriod - Math.floorMod(local - this.fixedPeriodOffset, this.fixedPeriod));
         }
+        long next = offsets.toEpochSecond(this.nextLocal(offsets.nextSearchBase(baseEpochSecond)));
+        // in the window after a gap, the skipped local times are shifted between
+        // the local times that exist, so local order is not the order of the
+        // instants: an earlier occurrence may be in the window of the base time,
+        // or in the window of the occurrence found from a skipped local time
+        next = Math.min(next, this.nextInGapWindow(baseEpochSecond, baseEpochSecond, offsets));
+        if (next != Long.MAX_VALUE) {
+            next = Math.min(next, this.nextInGapWindow(baseEpochSecond, next, offsets));
+        }
+        return next;
+    }
 
-        Date baseDate = new Date();
-        Long anotherDuration = Long.valueOf(anotherSchedule.nextDuration(baseDate, TimeUnit.SECONDS));
-        Long thisDuration = Long.valueOf(this.nextDuration(baseDate, TimeUnit.SECONDS));
-        return thisDuration.compareTo(anotherDuration);
+    /**
+     * Returns the first occurrence after the base time in the window after a gap
+     * containing the probed epoch second, where an epoch second is an occurrence
+     * if either its local time or its skipped local time matches, or
+     * {@code Long.MAX_VALUE} if there's none or the second is not in such a
+     * window.
+     */
+    private long nextInGapWindow(long baseEpochSecond, long probeEpochSecond, ZoneOffsets offsets) {
+        long gap = offsets.gapLength(probeEpochSecond);
+        if (gap == 0) {
+            return Long.MAX_VALUE;
+        }
+        long windowEnd = offsets.transitionWindowEnd(probeEpochSecond);
+        long offsetAfter = offsets.toLocal(probeEpochSecond) - probeEpochSecond;
+        long offsetBefore = offsetAfter - gap;
+        long from = Math.max(baseEpochSecond, windowEnd - gap - 1);
+        long next = Long.MAX_VALUE;
+        long skipped = this.nextLocal(from + offsetBefore);
+        if (skipped < windowEnd + offsetBefore) {
+            next = skipped - offsetBefore;
+        }
+        long existing = this.nextLocal(from + offsetAfter);
+        if (existing < windowEnd + offsetAfter) {
+            next = Math.min(next, existing - offsetAfter);
+        }
+        return next;
     }
 
     /**
-     * Compares this object against the specified object. The result is {@code true}
-     * if and only if the argument is not {@code null} and is a {@code Schedule}
-     * object that whose seconds, minutes, hours, days, months, and days of
-     * weeks sets are equal to those of this schedule.
+     * Returns a lazy stream of the occurrences in the window from {@code from}
+     * (inclusive) to {@code to} (exclusive), in chronological order.
      *
-     * The expression string used to create the schedule is not considered, as two
-     * different expressions may produce same schedules.
+     * <p>
+     * The occurrences are calculated one at a time as the stream is consumed, so
+     * consuming only a prefix of a large window is cheap. The stream can be made
+     * parallel, in which case the window is split at day, hour or minute
+     * boundaries of the time zone.
      *
-     * @param obj the object to compare with
-     * @return {@code true} if the objects are the same; {@code false} otherwise
+     * @param from start of the window, inclusive.
+     * @param to   end of the window, exclusive.
+     * @param zone time zone in which the schedule is evaluated.
+     * @return stream of the instants of the occurrences in the window.
+     * @see #nextEpochMillis(long, ZoneId)
      */
-    @Override
-    public boolean equals(Object obj) {
-        if (!(obj instanceof Schedule))
-            return false;
-        if (this == obj)
-            return true;
+    public Stream<Instant> occurrences(Instant from, Instant to, ZoneId zone) {
+        return StreamSupport.longStream(this.spliterator(ceilEpochSecond(from), ceilEpochSecond(to), zone), false)
+                .mapToObj(Instant::ofEpochMilli);
+    }
 
-        Schedule schedule = (Schedule) obj;
-        return this.seconds.equals(schedule.seconds) && this.minutes.equals(schedule.minutes)
-                && this.hours.equals(schedule.hours) && this.days.equals(schedule.days)
-                && this.months.equals(schedule.months) && this.daysOfWeek.equals(schedule.daysOfWeek);
+    /**
+     * Returns a lazy stream of the occurrences in the window from
+     * {@code fromEpochMillis} (inclusive) to {@code toEpochMillis} (exclusive), as
+     * milliseconds from the epoch in chronological order.
+     *
+     * @param fromEpochMillis start of the window, inclusive.
+     * @param toEpochMillis   end of the window, exclusive.
+     * @param zone            time zone in which the schedule is evaluated.
+     * @return stream of the milliseconds from the epoch of the occurrences in the
+     *         window.
+     * @see #occurrences(Instant, Instant, ZoneId)
+     */
+    public LongStream occurrencesEpochMillis(long fromEpochMillis, long toEpochMillis, ZoneId zone) {
+        return StreamSupport.longStream(
+                this.spliterator(ceilEpochSecond(fromEpochMillis), ceilEpochSecond(toEpochMillis), zone), false);
     }
 
-    public static boolean isLeapYear(int year) {
-        Calendar cal = Calendar.getInstance();
-        cal.set(Calendar.YEAR, year);
-        return cal.getActualMaximum(Calendar.DAY_OF_YEAR) > 365;
+    /**
+     * Returns a lazy iterator over the occurrences in the window from {@code from}
+     * (inclusive) to {@code to} (exclusive), in chronological order.
+     *
+     * @param from start of the window, inclusive.
+     * @param to   end of the window, exclusive.
+     * @param zone time zone in which the schedule is evaluated.
+     * @return iterator over the instants of the occurrences in the window.
+     * @see #occurrences(Instant, Instant, ZoneId)
+     */
+    public Iterator<Instant> occurrenceIterator(Instant from, Instant to, ZoneId zone) {
+        return this.occurrences(from, to, zone).iterator();
     }
 
-    public int getNumberOfFields() {
-        return hasSecondsField ? 6 : 5;
+    private Spliterator.OfLong spliterator(long fromEpochSecond, long toEpochSecond, ZoneId zone) {
+        return new OccurrenceSpliterator(this, ZoneOffsets.of(zone), fromEpochSecond - 1,
+                Math.max(fromEpochSecond, toEpochSecond));
     }
 
-    public String getExpression() {
-        return expression;
+    private static long ceilEpochSecond(Instant instant) {
+        return instant.getNano() > 0 ? instant.getEpochSecond() + 1 : instant.getEpochSecond();
     }
 
-    private boolean canScheduleActuallyOccur() {
-        if (this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.UNION || this.days.nextSetBit(0) < 29)
-            return true;
+    static long ceilEpochSecond(long epochMillis) {
+        long epochSecond = Math.floorDiv(epochMillis, 1000L);
+        return epochSecond * 1000L == epochMillis ? epochSecond : epochSecond + 1;
+    }
 
-        int aYear = new Date().getYear();
-        for (int dayIndex = 29; dayIndex < 31; dayIndex++) {
-            if (!this.days.get(dayIndex))
-                continue;
+    /**
+     * Returns a view of the schedule that precomputes its occurrences in the
+     * provided time zone for the provided horizon from the current time, and
+     * answers {@code next}, {@code matches} and {@code countOccurrences} in the
+     * horizon by binary search. The horizon is refilled in the background on the
+     * common fork-join pool as time advances.
+     *
+     * @param horizon length of the window of precomputed occurrences, between 1
+     *                second and {@code Integer.MAX_VALUE} seconds.
+     * @param zone    time zone in which the schedule is evaluated.
+     * @return the precomputed schedule.
+     * @throws IllegalArgumentException if the horizon is out of range.
+     * @see PrecomputedSchedule
+     */
+    public PrecomputedSchedule precompute(Duration horizon, ZoneId zone) {
+        return new PrecomputedSchedule(this, zone, horizon, System.currentTimeMillis(), ForkJoinPool.commonPool());
+    }
 
-            for (int monthIndex = 0; monthIndex < 12; monthIndex++) {
-                if (!this.months.get(monthIndex))
-                    continue;
+    /**
+     * Checks whether the schedule occurs at the provided epoch second.
+     *
+     * <p>
+     * The check is a handful of bit tests on the local time of the epoch second,
+     * it's equivalent to {@code nextEpochMillis((epochSecond - 1) * 1000, zone)
+     * == epochSecond * 1000} but doesn't search for the next occurrence. Right
+     * after a gap of the time zone, the skipped local time shifted to the epoch
+     * second is tested as well, and right after an overlap the repeated local
+     * times never match, as they already occurred.
+     *
+     * @param epochSecond seconds from the epoch of 1970-01-01T00:00:00Z.
+     * @param zone        time zone in which the schedule is evaluated.
+     * @return {@code true} if the schedule occurs at the epoch second;
+     *         {@code false} otherwise.
+     */
+    public boolean matches(long epochSecond, ZoneId zone) {
+        return this.matches(epochSecond, ZoneOffsets.of(zone));
+    }
 
-                if (dayIndex + 1 <= YearMonth.of(aYear, monthIndex + 1).lengthOfMonth())
-                    return true;
-            }
+    /**
+     * Checks whether the schedule occurs at the provided date-time.
+     *
+     * @param dateTime date-time to check, evaluated in its own zone.
+     * @return {@code true} if the schedule occurs at the date-time; {@code false}
+     *         otherwise, including when the date-time is not at a whole second.
+     * @see #matches(long, ZoneId)
+     */
+    public boolean matches(ZonedDateTime dateTime) {
+        return dateTime.getNano() == 0 && this.matches(dateTime.toEpochSecond(), ZoneOffsets.of(dateTime.getZone()));
+    }
+
+    boolean matches(long epochSecond, ZoneOffsets offsets) {
+        long local = offsets.toLocal(epochSecond);
+        if (offsets.transitionWindowEnd(epochSecond) > epochSecond) {
+            long gap = offsets.gapLength(epochSecond);
+            // after an overlap, the repeated local times already occurred at their
+            // earlier instants, and after a gap the skipped local times are shifted
+            // forward by the length of the gap
+            return gap != 0 && (this.matchesLocal(local) || this.matchesLocal(local - gap));
         }
-        return false;
+        return this.matchesLocal(local);
     }
 
-    private static BitSet generateDaysOf5Weeks(BitSet daysOfWeek) {
-        int weekLength = 7;
-        int setLength = weekLength + 31;
-        BitSet bitSet = new BitSet(setLength);
-        for (int i = 0; i < setLength; i += weekLength) {
-            for (int j = 0; j < weekLength; j++) {
-                bitSet.set(j + i, daysOfWeek.get(j));
+    private boolean matchesLocal(long local) {
+        long epochDay = Math.floorDiv(local, SECONDS_PER_DAY);
+        int secondOfDay = (int) (local - epochDay * SECONDS_PER_DAY);
+        return (this.seconds & (1L << (secondOfDay % 60))) != 0
+                && (this.minutes & (1L << (secondOfDay / 60 % 60))) != 0
+                && (this.hours & (1L << (secondOfDay / 3600))) != 0 && this.isOccurringDay(epochDay);
+    }
+
+    /**
+     * Counts the occurrences in the window from {@code from} (inclusive) to
+     * {@code to} (exclusive) without enumerating them.
+     *
+     * <p>
+     * The count is calculated from the number of matching times of day and a scan
+     * of the matching days of each month, so its cost is proportional to the
+     * number of months in the window rather than the number of occurrences. Only
+     * the short windows after the offset transitions of the time zone are
+     * enumerated.
+     *
+     * @param from start of the window, inclusive.
+     * @param to   end of the window, exclusive.
+     * @param zone time zone in which the schedule is evaluated.
+     * @return number of occurrences in the window.
+     * @see #occurrences(Instant, Instant, ZoneId)
+     */
+    public long countOccurrences(Instant from, Instant to, ZoneId zone) {
+        return this.countOccurrences(ceilEpochSecond(from), ceilEpochSecond(to), ZoneOffsets.of(zone));
+    }
+
+    /**
+     * Counts the occurrences in the window from {@code fromEpochMillis}
+     * (inclusive) to {@code toEpochMillis} (exclusive) without enumerating them.
+     *
+     * @param fromEpochMillis start of the window, inclusive.
+     * @param toEpochMillis   end of the window, exclusive.
+     * @param zone            time zone in which the schedule is evaluated.
+     * @return number of occurrences in the window.
+     * @see #countOccurrences(Instant, Instant, ZoneId)
+     */
+    public long countOccurrences(long fromEpochMillis, long toEpochMillis, ZoneId zone) {
+        return this.countOccurrences(ceilEpochSecond(fromEpochMillis), ceilEpochSecond(toEpochMillis),
+                ZoneOffsets.of(zone));
+    }
+
+    long countOccurrences(long fromEpochSecond, long toEpochSecond, ZoneOffsets offsets) {
+        long count = 0;
+        long start = fromEpochSecond;
+        while (start < toEpochSecond) {
+            long windowEnd = offsets.transitionWindowEnd(start);
+            if (windowEnd > start) {
+                long end = Math.min(toEpochSecond, windowEnd);
+                for (long next = this.nextEpochSecond(start - 1, offsets); next < end; next = this
+                        .nextEpochSecond(next, offsets)) {
+                    count++;
+                }
+                start = end;
+            } else {
+                // the offset is constant up to the next transition
+                long end = Math.min(toEpochSecond, offsets.nextTransition(start));
+                long offset = offsets.toLocal(start) - start;
+                count += this.countLocal(start + offset, end + offset);
+                start = end;
             }
         }
-        return bitSet;
+        return count;
     }
 
-    private BitSet getUpdatedDays(Schedule schedule, int year, int month) {
-        Date date = new Date(year, month, 1);
-        int daysOf5WeeksOffset = date.getDay();
-        BitSet updatedDays = new BitSet(31);
-        updatedDays.or(this.days);
-        BitSet monthDaysOfWeeks = this.daysOf5Weeks.get(daysOf5WeeksOffset, daysOf5WeeksOffset + 31);
-        if (schedule.isSpecificLastDayOfMonth
-                || this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.INTERSECT) {
-            updatedDays.and(monthDaysOfWeeks);
-        } else {
-            updatedDays.or(monthDaysOfWeeks);
+    /**
+     * Counts the occurrences from the local time {@code fromLocal} (inclusive) to
+     * {@code toLocal} (exclusive).
+     */
+    private long countLocal(long fromLocal, long toLocal) {
+        if (fromLocal >= toLocal) {
+            return 0;
         }
-        int monthDaysCount;
-        if (month == 1 /* Feb */) {
-            monthDaysCount = 28;
-            if (isLeapYear(year)) {
-                monthDaysCount++;
-            }
-        } else {
-            // We cannot use lengthOfMonth method with the month Feb
-            // because it returns incorrect number of days for years
-            // that are dividable by 400 like the year 2000, a bug??
-            monthDaysCount = YearMonth.of(year, month + 1).lengthOfMonth();
+        long firstDay = Math.floorDiv(fromLocal, SECONDS_PER_DAY);
+        long lastDay = Math.floorDiv(toLocal - 1, SECONDS_PER_DAY);
+        int fromSecondOfDay = (int) (fromLocal - firstDay * SECONDS_PER_DAY);
+        int toSecondOfDay = (int) (toLocal - lastDay * SECONDS_PER_DAY);
+        if (firstDay == lastDay) {
+            return this.isOccurringDay(firstDay)
+                    ? this.countTimesOfDayBefore(toSecondOfDay) - this.countTimesOfDayBefore(fromSecondOfDay)
+                    : 0;
         }
-        // remove days beyond month length
-        for (int j = monthDaysCount; j < 31; j++) {
-            updatedDays.set(j, false);
+        long count = 0;
+        if (this.isOccurringDay(firstDay)) {
+            count += this.countTimesOfDayBefore((int) SECONDS_PER_DAY) - this.countTimesOfDayBefore(fromSecondOfDay);
+        }
+        if (this.isOccurringDay(lastDay)) {
+            count += this.countTimesOfDayBefore(toSecondOfDay);
         }
+        return count + this.countOccurringDays(firstDay + 1, lastDay - 1)
+                * this.countTimesOfDayBefore((int) SECONDS_PER_DAY);
+    }
+
+    private boolean isOccurringDay(long epochDay) {
+        long date = toDate(epochDay);
+        int month = monthOf(date);
+        return (this.months & (1L << month)) != 0
+                && (this.getUpdatedDays(yearOf(date), month) & (1L << (dayOf(date) - 1))) != 0;
+    }
 
-        if (isLastDayOfMonth) {
-            for (int j = 0; j < monthDaysCount; j++) { // remove all days except last day of month
-                updatedDays.set(j, ((j + 1) == monthDaysCount));
+    /**
+     * Counts the days from {@code fromEpochDay} to {@code toEpochDay} (both
+     * inclusive) on which the schedule occurs, a month at a time.
+     */
+    private long countOccurringDays(long fromEpochDay, long toEpochDay) {
+        long count = 0;
+        long epochDay = fromEpochDay;
+        while (epochDay <= toEpochDay) {
+            long date = toDate(epochDay);
+            int year = yearOf(date);
+            int month = monthOf(date);
+            int day = dayOf(date);
+            int monthDaysCount = CalendarTable.lengthOfMonth(year, month);
+            int lastDay = (int) Math.min(monthDaysCount, day + (toEpochDay - epochDay));
+            if ((this.months & (1L << month)) != 0) {
+                long rangeDays = (-1L << (day - 1)) & ((1L << lastDay) - 1);
+                count += Long.bitCount(this.getUpdatedDays(year, month) & rangeDays);
             }
-        } else if (schedule.isSpecificLastDayOfMonth) { // remove days before the last 7 days
-            for (int j = 0; j < monthDaysCount - 7; j++) {
-                updatedDays.set(j, false);
+            epochDay += lastDay - day + 1;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the times of day on which the schedule occurs before the provided
+     * second of the day, which is between 0 and 86400.
+     */
+    private long countTimesOfDayBefore(int secondOfDay) {
+        long secondsCount = Long.bitCount(this.seconds);
+        long minutesCount = Long.bitCount(this.minutes);
+        if (secondOfDay >= SECONDS_PER_DAY) {
+            return Long.bitCount(this.hours) * minutesCount * secondsCount;
+        }
+        int hour = secondOfDay / 3600;
+        int minute = secondOfDay / 60 % 60;
+        int second = secondOfDay % 60;
+        long count = Long.bitCount(this.hours & ((1L << hour) - 1)) * minutesCount * secondsCount;
+        if ((this.hours & (1L << hour)) != 0) {
+            count += Long.bitCount(this.minutes & ((1L << minute) - 1)) * secondsCount;
+            if ((this.minutes & (1L << minute)) != 0) {
+                count += Long.bitCount(this.seconds & ((1L << second) - 1));
             }
         }
+        return count;
+    }
+
+    /**
+     * Calculates the previous occurrence based on provided base time.
+     *
+     * The fields of the schedule are evaluated in the system default time zone.
+     *
+     * @param baseDate Date object based on which calculating the previous
+     *                 occurrence.
+     * @return Date object of the previous occurrence.
+     */
+    public Date previous(Date baseDate) {
+        return new Date(this.previousEpochMillis(baseDate.getTime(), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Calculates the previous N occurrences based on provided base time.
+     *
+     * @param baseDate Date object based on which calculating the previous
+     *                 occurrence.
+     * @param count    number of previous occurrences to calculate.
+     * @return Array of Date objects of the previous N occurrences, the most recent
+     *         occurrence first.
+     */
+    public Date[] previous(Date baseDate, int count) {
+        ZoneId zone = ZoneId.systemDefault();
+        long baseEpochMillis = baseDate.getTime();
+        Date[] dates = new Date[count];
+        for (int i = 0; i < dates.length; i++) {
+            baseEpochMillis = this.previousEpochMillis(baseEpochMillis, zone);
+            dates[i] = new Date(baseEpochMillis);
+        }
+        return dates;
+    }
+
+    /**
+     * Calculates the previous occurrence based on provided base time, given as
+     * milliseconds from the epoch of 1970-01-01T00:00:00Z. The previous
+     * occurrence is strictly before the base time.
+     *
+     * <p>
+     * Gaps and overlaps of the time zone are handled as described in
+     * {@link #nextEpochMillis(long, ZoneId)}, so the previous occurrence of an
+     * occurrence is always the occurrence preceding it in {@code next}.
+     *
+     * @param baseEpochMillis milliseconds from the epoch based on which calculating
+     *                        the previous occurrence.
+     * @param zone            time zone in which the schedule is evaluated.
+     * @return milliseconds from the epoch of the previous occurrence.
+     */
+    public long previousEpochMillis(long baseEpochMillis, ZoneId zone) {
+        long baseEpochSecond = Math.floorDiv(baseEpochMillis, 1000L);
+        if (baseEpochSecond * 1000L != baseEpochMillis) {
+            // an occurrence in the same second is still before the base time
+            baseEpochSecond++;
+        }
+        return this.previousEpochSecond(baseEpochSecond, ZoneOffsets.of(zone)) * 1000L;
+    }
+
+    /**
+     * Calculates the previous occurrence based on provided base time.
+     *
+     * @param baseDateTime date-time based on which calculating the previous
+     *                     occurrence.
+     * @return date-time of the previous occurrence in the zone of the base time.
+     * @see #previousEpochMillis(long, ZoneId)
+     */
+    public ZonedDateTime previous(ZonedDateTime baseDateTime) {
+        ZoneId zone = baseDateTime.getZone();
+        return ZonedDateTime.ofInstant(this.previous(baseDateTime.toInstant(), zone), zone);
+    }
+
+    /**
+     * Calculates the previous occurrence based on provided base instant.
+     *
+     * @param baseInstant instant based on which calculating the previous
+     *                    occurrence.
+     * @param zone        time zone in which the schedule is evaluated.
+     * @return instant of the previous occurrence.
+     * @see #previousEpochMillis(long, ZoneId)
+     */
+    public Instant previous(Instant baseInstant, ZoneId zone) {
+        long baseEpochSecond = baseInstant.getEpochSecond();
+        if (baseInstant.getNano() > 0) {
+            baseEpochSecond++;
+        }
+        return Instant.ofEpochSecond(this.previousEpochSecond(baseEpochSecond, ZoneOffsets.of(zone)));
+    }
+
+    /**
+     * Calculates the previous occurrence based on provided local date-time.
+     *
+     * @param baseDateTime local date-time based on which calculating the previous
+     *                     occurrence.
+     * @return local date-time of the previous occurrence.
+     */
+    public LocalDateTime previous(LocalDateTime baseDateTime) {
+        long baseLocal = baseDateTime.toEpochSecond(ZoneOffset.UTC);
+        if (baseDateTime.getNano() > 0) {
+            baseLocal++;
+        }
+        return LocalDateTime.ofEpochSecond(this.previousLocal(baseLocal), 0, ZoneOffset.UTC);
+    }
+
+    private long previousEpochSecond(long baseEpochSecond, ZoneOffsets offsets) {
+        long local = this.previousLocal(offsets.previousSearchBase(baseEpochSecond));
+        long epochSecond = offsets.toEpochSecond(local);
+        if (epochSecond >= baseEpochSecond) {
+            // the local time is in a gap and was shifted forward past the base
+            // time, search again before the base time in the offset before the gap
+            local = this.previousLocal(baseEpochSecond + (local - epochSecond));
+            epochSecond = offsets.toEpochSecond(local);
+        }
+        // the windows after gaps are searched like in nextEpochSecond
+        epochSecond = Math.max(epochSecond, this.previousInGapWindow(baseEpochSecond, baseEpochSecond - 1, offsets));
+        if (epochSecond != Long.MIN_VALUE) {
+            epochSecond = Math.max(epochSecond, this.previousInGapWindow(baseEpochSecond, epochSecond, offsets));
+        }
+        return epochSecond;
+    }
+
+    /**
+     * Returns the last occurrence before the base time in the window after a gap
+     * containing the probed epoch second, mirroring
+     * {@link #nextInGapWindow(long, long, ZoneOffsets)}, or {@code Long.MIN_VALUE}
+     * if there's none or the second is not in such a window.
+     */
+    private long previousInGapWindow(long baseEpochSecond, long probeEpochSecond, ZoneOffsets offsets) {
+        long gap = offsets.gapLength(probeEpochSecond);
+        if (gap == 0) {
+            return Long.MIN_VALUE;
+        }
+        long windowEnd = offsets.transitionWindowEnd(probeEpochSecond);
+        long windowStart = windowEnd - gap;
+        long offsetAfter = offsets.toLocal(probeEpochSecond) - probeEpochSecond;
+        long offsetBefore = offsetAfter - gap;
+        long to = Math.min(baseEpochSecond, windowEnd);
+        long previous = Long.MIN_VALUE;
+        long skipped = this.previousLocal(to + offsetBefore);
+        if (skipped >= windowStart + offsetBefore) {
+            previous = skipped - offsetBefore;
+        }
+        long existing = this.previousLocal(to + offsetAfter);
+        if (existing >= windowStart + offsetAfter) {
+            previous = Math.max(previous, existing - offsetAfter);
+        }
+        return previous;
+    }
+
+    /**
+     * Calculates the number of time units from the current time to the next
+     * occurrence.
+     *
+     * @param timeUnit time unit in which the returned value should be.
+     * @return number of time units from the current time to the next occurrence.
+     */
+    public long nextDuration(TimeUnit timeUnit) {
+        long baseEpochMillis = System.currentTimeMillis();
+        long diff = this.nextEpochMillis(baseEpochMillis, ZoneId.systemDefault()) - baseEpochMillis;
+        return timeUnit.convert(diff, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Calculates the number of time units from the provided base time to the next
+     * occurrence.
+     *
+     * @param baseDate Date object based on which calculating the next occurrence.
+     * @param timeUnit time unit in which the returned value should be.
+     * @return number of time units from the provided base time to the next
+     *         occurrence.
+     */
+    public long nextDuration(Date baseDate, TimeUnit timeUnit) {
+        long baseEpochMillis = baseDate.getTime();
+        long diff = this.nextEpochMillis(baseEpochMillis, ZoneId.systemDefault()) - baseEpochMillis;
+        return timeUnit.convert(diff, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Compare two {@code Schedule} objects based on next occurrence.
+     *
+     * The next occurrences are calculated based on the current time.
+     *
+     * @param anotherSchedule the {@code Schedule} to be compared.
+     * @return the value {@code 0} if this {@code Schedule} next occurrence is equal
+     *         to the argument {@code Schedule} next occurrence; a value less than
+     *         {@code 0} if this {@code Schedule} next occurrence is before the
+     *         argument {@code Schedule} next occurrence; and a value greater than
+     *         {@code 0} if this {@code Schedule} next occurrence is after the
+     *         argument {@code Schedule} next occurrence.
+     */
+    @Override
+    public int compareTo(Schedule anotherSchedule) {
+        if (anotherSchedule == this) {
+            return 0;
+        }
+
+        long baseEpochMillis = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
+        return Long.compare(this.nextEpochMillis(baseEpochMillis, zone),
+                anotherSchedule.nextEpochMillis(baseEpochMillis, zone));
+    }
+
+    /**
+     * Compares this object against the specified object. The result is {@code true}
+     * if and only if the argument is not {@code null} and is a {@code Schedule}
+     * object that occurs at exactly the same times as this schedule and has the
+     * same number of fields.
+     *
+     * The expression string used to create the schedule is not considered, as two
+     * different expressions may produce same schedules. The days of the schedules
+     * are normalized when they are created, so for example {@code "0 0 1-31 * 1"}
+     * and {@code "0 0 * * *"} are equal, as both occur every day.
+     *
+     * @param obj the object to compare with
+     * @return {@code true} if the objects are the same; {@code false} otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Schedule))
+            return false;
+        if (this == obj)
+            return true;
+
+        Schedule schedule = (Schedule) obj;
+        return this.hashCode == schedule.hashCode && this.seconds == schedule.seconds
+                && this.minutes == schedule.minutes && this.hours == schedule.hours && this.days == schedule.days
+                && this.months == schedule.months && this.daysOfWeek == schedule.daysOfWeek
+                && this.isLastDayOfMonth == schedule.isLastDayOfMonth
+                && this.isSpecificLastDayOfMonth == schedule.isSpecificLastDayOfMonth
+                && this.hasSecondsField == schedule.hasSecondsField
+                && this.daysAndDaysOfWeekRelation == schedule.daysAndDaysOfWeekRelation;
+    }
+
+    /**
+     * Returns a hash code for this schedule, consistent with {@link #equals}. The
+     * hash code is calculated once when the schedule is created.
+     *
+     * @return a hash code value for this schedule.
+     */
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    private int computeHashCode() {
+        long hash = this.seconds;
+        hash = hash * 31 + this.minutes;
+        hash = hash * 31 + this.hours;
+        hash = hash * 31 + this.days;
+        hash = hash * 31 + this.months;
+        hash = hash * 31 + this.daysOfWeek;
+        hash = hash * 31 + (this.isLastDayOfMonth ? 1 : 0);
+        hash = hash * 31 + (this.isSpecificLastDayOfMonth ? 1 : 0);
+        hash = hash * 31 + (this.hasSecondsField ? 1 : 0);
+        hash = hash * 31 + this.daysAndDaysOfWeekRelation.ordinal();
+        return Long.hashCode(hash);
+    }
+
+    /**
+     * Renders the shortest expression of this schedule, using numbers for months
+     * and days of week. Equal schedules have the same canonical string, and
+     * creating a schedule from the canonical string results in an equal schedule.
+     *
+     * <pre>
+     * Schedule.create("0,15,30,45 0-23 1-31 JAN-DEC *").toCanonicalString(); // "*&#47;15 * * * *"
+     * </pre>
+     *
+     * @return the canonical crontab expression of this schedule.
+     */
+    public String toCanonicalString() {
+        StringBuilder builder = new StringBuilder();
+        if (this.hasSecondsField) {
+            builder.append(formatField(this.seconds, 0, 60)).append(' ');
+        }
+        builder.append(formatField(this.minutes, 0, 60)).append(' ');
+        builder.append(formatField(this.hours, 0, 24)).append(' ');
+
+        String daysField;
+        String daysOfWeekField;
+        if (this.isLastDayOfMonth) {
+            daysField = "L";
+        } else {
+            daysField = formatField(this.days, 1, this.days == MONTH_DAYS_MASK ? 31 : this.longestMonthLength());
+        }
+        if (this.isSpecificLastDayOfMonth) {
+            daysOfWeekField = Long.numberOfTrailingZeros(this.daysOfWeek) + "L";
+        } else {
+            daysOfWeekField = formatField(this.daysOfWeek, 0, 7);
+        }
+        // the relation between the days and the days of week is decided by whether
+        // one of them starts with an asterisk
+        boolean isStarred = daysField.startsWith("*") || daysOfWeekField.startsWith("*");
+        if (this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.UNION) {
+            if (daysField.startsWith("*")) {
+                daysField = "1" + daysField.substring(1);
+            }
+            if (daysOfWeekField.startsWith("*")) {
+                daysOfWeekField = "0" + daysOfWeekField.substring(1);
+            }
+        } else if (!isStarred) {
+            // a step as long as the field selects only its first value
+            if ((this.daysOfWeek & 1L) != 0) {
+                long rest = this.daysOfWeek & ~1L;
+                daysOfWeekField = "*/7" + (rest == 0 ? "" : "," + formatField(rest, 0, 7));
+            } else {
+                long rest = this.days & ~1L;
+                daysField = "*/31" + (rest == 0 ? "" : "," + formatField(rest, 1, 31));
+            }
+        }
+        builder.append(daysField).append(' ');
+        builder.append(formatField(this.months, 1, 12)).append(' ');
+        builder.append(daysOfWeekField);
+        return builder.toString();
+    }
+
+    // the fields of the schedule, for the columnar layout of ScheduleSet
+
+    long getSecondsMask() {
+        return this.seconds;
+    }
+
+    long getMinutesMask() {
+        return this.minutes;
+    }
+
+    long getHoursMask() {
+        return this.hours;
+    }
+
+    long getDaysMask() {
+        return this.days;
+    }
+
+    long getMonthsMask() {
+        return this.months;
+    }
+
+    long getDaysOfWeekMask() {
+        return this.daysOfWeek;
+    }
+
+    boolean isLastDayOfMonth() {
+        return this.isLastDayOfMonth;
+    }
+
+    boolean isSpecificLastDayOfMonth() {
+        return this.isSpecificLastDayOfMonth;
+    }
+
+    boolean isDaysUnion() {
+        return this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.UNION;
+    }
+
+    /**
+     * Checks whether the provided year is a leap year in the proleptic Gregorian
+     * calendar, which is the calendar used to evaluate schedules.
+     *
+     * @param year the year to check.
+     * @return {@code true} if the year is a leap year; {@code false} otherwise.
+     */
+    public static boolean isLeapYear(int year) {
+        return CalendarTable.isLeapYear(year);
+    }
+
+    /**
+     * Returns the fixed period of the schedule, if it occurs every fixed period on
+     * the wall-clock, like {@code "*&#47;5 * * * *"} every 5 minutes or
+     * {@code "0 0 *&#47;2 * * *"} every 2 hours.
+     *
+     * <p>
+     * A schedule has a fixed period if it occurs every day of every month, and
+     * its times of day are evenly spaced and wrap around midnight with the same
+     * spacing. In a time zone with a fixed offset, such as UTC, the occurrences
+     * are then exactly one period apart, and the next occurrence is calculated
+     * with modular arithmetic instead of walking the fields. Daylight saving
+     * transitions break the period around them.
+     *
+     * @return the period of the schedule, or an empty optional if the schedule
+     *         doesn't occur at a fixed period.
+     */
+    public Optional<Duration> fixedPeriod() {
+        return this.fixedPeriod == 0 ? Optional.empty() : Optional.of(Duration.ofSeconds(this.fixedPeriod));
+    }
+
+    public int getNumberOfFields() {
+        return hasSecondsField ? 6 : 5;
+    }
+
+    /**
+     * Returns the expression the schedule was created from, or its canonical
+     * string if the schedule was read with {@link #readFrom(ByteBuffer)}.
+     *
+     * @return the expression of the schedule.
+     */
+    public String getExpression() {
+        if (this.expression == null) {
+            // a racing thread may only render the same string twice
+            this.expression = this.toCanonicalString();
+        }
+        return this.expression;
+    }
+
+    /**
+     * Writes the parsed fields of the schedule to the buffer, in a versioned,
+     * fixed-width binary format of {@link #BINARY_SIZE} bytes, so stores of many
+     * schedules can load them with {@link #readFrom(ByteBuffer)} without parsing
+     * expressions.
+     *
+     * <p>
+     * The bytes are written at the position of the buffer, which is advanced by
+     * {@link #BINARY_SIZE}. The format is big-endian regardless of the byte order
+     * of the buffer. The expression string is not written, a schedule read back
+     * is equal to this schedule and its expression is the canonical string.
+     *
+     * <pre>
+     * offset  size  content
+     * 0       1     format version, currently 1
+     * 1       1     flags: 6 fields (bit 0), union of days and days of week
+     *               (bit 1), last day of month (bit 2), last day of week of
+     *               month (bit 3)
+     * 2       8     seconds, bit i is second i
+     * 10      8     minutes, bit i is minute i
+     * 18      4     hours in bits 0-23, bit i is hour i, and days of week in
+     *               bits 24-30, bit 24 + i is day of week i
+     * 22      4     days, bit i is day i + 1
+     * 26      2     months, bit i is month i + 1
+     * </pre>
+     *
+     * @param buffer the buffer to write to.
+     * @throws BufferOverflowException if there are fewer than
+     *                                 {@link #BINARY_SIZE} bytes remaining in the
+     *                                 buffer.
+     */
+    public void writeTo(ByteBuffer buffer) {
+        if (buffer.remaining() < BINARY_SIZE) {
+            throw new BufferOverflowException();
+        }
+        this.writeTo(buffer, buffer.position());
+        buffer.position(buffer.position() + BINARY_SIZE);
+    }
+
+    /**
+     * Writes the schedule at the provided index of the buffer, without changing
+     * its position or byte order, so a buffer can be shared between threads.
+     */
+    void writeTo(ByteBuffer buffer, int index) {
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        int flags = (this.hasSecondsField ? HAS_SECONDS_FIELD_FLAG : 0)
+                | (this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.UNION ? DAYS_UNION_FLAG : 0)
+                | (this.isLastDayOfMonth ? LAST_DAY_OF_MONTH_FLAG : 0)
+                | (this.isSpecificLastDayOfMonth ? SPECIFIC_LAST_DAY_OF_MONTH_FLAG : 0);
+        int hoursAndDaysOfWeek = (int) (this.hours | this.daysOfWeek << 24);
+        buffer.put(index, BINARY_VERSION);
+        buffer.put(index + 1, (byte) flags);
+        buffer.putLong(index + 2, bigEndian ? this.seconds : Long.reverseBytes(this.seconds));
+        buffer.putLong(index + 10, bigEndian ? this.minutes : Long.reverseBytes(this.minutes));
+        buffer.putInt(index + 18, bigEndian ? hoursAndDaysOfWeek : Integer.reverseBytes(hoursAndDaysOfWeek));
+        buffer.putInt(index + 22, bigEndian ? (int) this.days : Integer.reverseBytes((int) this.days));
+        buffer.putShort(index + 26, bigEndian ? (short) this.months : Short.reverseBytes((short) this.months));
+    }
+
+    /**
+     * Reads a schedule written by {@link #writeTo(ByteBuffer)} from the position
+     * of the buffer, which is advanced by {@link #BINARY_SIZE}. No expression is
+     * parsed, so schedules can be decoded directly from a memory-mapped file.
+     *
+     * @param buffer the buffer to read from.
+     * @return the schedule read from the buffer.
+     * @throws IllegalArgumentException if the bytes are of an unknown format
+     *                                  version or don't represent a valid
+     *                                  schedule.
+     * @throws BufferUnderflowException if there are fewer than
+     *                                  {@link #BINARY_SIZE} bytes remaining in
+     *                                  the buffer.
+     */
+    public static Schedule readFrom(ByteBuffer buffer) {
+        if (buffer.remaining() < BINARY_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        Schedule schedule = new Schedule();
+        schedule.load(buffer, buffer.position(), true);
+        buffer.position(buffer.position() + BINARY_SIZE);
+        return schedule;
+    }
+
+    /**
+     * Creates an empty schedule to be loaded with {@link #load}, for evaluating
+     * encoded schedules without creating an object per schedule.
+     */
+    static Schedule newScratch() {
+        return new Schedule();
+    }
+
+    /**
+     * Replaces the fields of this schedule with the schedule at the provided
+     * index of the buffer, without changing its position or byte order. Only
+     * schedules created with {@link #readFrom} or {@link #newScratch()} may be
+     * loaded, as other schedules are shared as immutable.
+     *
+     * @param validate whether to check the bytes represent a valid schedule,
+     *                 which can be skipped for bytes that were already checked.
+     */
+    void load(ByteBuffer buffer, int index, boolean validate) {
+        boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+        byte version = buffer.get(index);
+        if (version != BINARY_VERSION) {
+            throw new IllegalArgumentException("unsupported schedule format version: " + version);
+        }
+        int flags = buffer.get(index + 1);
+        long seconds = buffer.getLong(index + 2);
+        long minutes = buffer.getLong(index + 10);
+        int hoursAndDaysOfWeek = buffer.getInt(index + 18);
+        int days = buffer.getInt(index + 22);
+        short months = buffer.getShort(index + 26);
+        if (!bigEndian) {
+            seconds = Long.reverseBytes(seconds);
+            minutes = Long.reverseBytes(minutes);
+            hoursAndDaysOfWeek = Integer.reverseBytes(hoursAndDaysOfWeek);
+            days = Integer.reverseBytes(days);
+            months = Short.reverseBytes(months);
+        }
+        this.seconds = seconds;
+        this.minutes = minutes;
+        this.hours = hoursAndDaysOfWeek & ((1L << 24) - 1);
+        this.daysOfWeek = hoursAndDaysOfWeek >>> 24;
+        this.days = days & 0xFFFFFFFFL;
+        this.months = months & 0xFFFFL;
+        this.hasSecondsField = (flags & HAS_SECONDS_FIELD_FLAG) != 0;
+        this.daysAndDaysOfWeekRelation = (flags & DAYS_UNION_FLAG) != 0 ? DaysAndDaysOfWeekRelation.UNION
+                : DaysAndDaysOfWeekRelation.INTERSECT;
+        this.isLastDayOfMonth = (flags & LAST_DAY_OF_MONTH_FLAG) != 0;
+        this.isSpecificLastDayOfMonth = (flags & SPECIFIC_LAST_DAY_OF_MONTH_FLAG) != 0;
+        if (validate && (flags >>> 4 != 0 || !this.hasValidFields())) {
+            throw new IllegalArgumentException("invalid schedule fields");
+        }
+        this.daysOf5Weeks = generateDaysOf5Weeks(this.daysOfWeek);
+        this.fixedPeriod = 0;
+        this.fixedPeriodOffset = 0;
+        this.computeFixedPeriod();
+        this.hashCode = this.computeHashCode();
+        this.expression = null;
+    }
+
+    private boolean hasValidFields() {
+        return isValidMask(this.seconds, 60) && (this.hasSecondsField || this.seconds == 1L)
+                && isValidMask(this.minutes, 60) && isValidMask(this.hours, 24) && isValidMask(this.days, 31)
+                && isValidMask(this.months, 12) && isValidMask(this.daysOfWeek, 7)
+                && !(this.isLastDayOfMonth && this.isSpecificLastDayOfMonth) && this.canScheduleActuallyOccur();
+    }
+
+    private static boolean isValidMask(long mask, int length) {
+        return mask != 0 && mask >>> length == 0;
+    }
+
+    /**
+     * Calculates the next occurrence strictly after the provided local time. Both
+     * the argument and the returned value are local seconds, the number of
+     * seconds from 1970-01-01T00:00:00 on the wall-clock.
+     */
+    private long nextLocal(long baseLocal) {
+        long epochDay = Math.floorDiv(baseLocal, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(baseLocal, SECONDS_PER_DAY);
+        int baseSecond = secondOfDay % 60;
+        int baseMinute = secondOfDay / 60 % 60;
+        int baseHour = secondOfDay / 3600;
+
+        long baseDate = toDate(epochDay);
+        int baseDay = dayOf(baseDate);
+        int baseMonth = monthOf(baseDate);
+        int baseYear = yearOf(baseDate);
+
+        int second = baseSecond;
+        int minute = baseMinute;
+        int hour = baseHour;
+        int day = baseDay;
+        int month = baseMonth;
+        int year = baseYear;
+
+        final int firstSecond = nextSetBit(this.seconds, 0);
+        final int firstMinute = nextSetBit(this.minutes, 0);
+        final int firstHour = nextSetBit(this.hours, 0);
+
+        if (this.hasSecondsField) {
+            second++;
+            second = nextSetBit(this.seconds, second);
+            if (second < 0) {
+                second = firstSecond;
+                minute++;
+            }
+        } else {
+            minute++;
+        }
+
+        minute = nextSetBit(this.minutes, minute);
+        if (minute < 0) {
+            hour++;
+            second = firstSecond;
+            minute = firstMinute;
+        } else if (minute > baseMinute) {
+            second = firstSecond;
+        }
+
+        hour = nextSetBit(this.hours, hour);
+        if (hour < 0) {
+            day++;
+            second = firstSecond;
+            minute = firstMinute;
+            hour = firstHour;
+        } else if (hour > baseHour) {
+            second = firstSecond;
+            minute = firstMinute;
+        }
+
+        int candidateDay;
+        int candidateMonth;
+        while (true) {
+            candidateMonth = nextSetBit(this.months, month);
+            if (candidateMonth < 0) {
+                year++;
+                second = firstSecond;
+                minute = firstMinute;
+                hour = firstHour;
+                day = 1;
+                candidateMonth = nextSetBit(this.months, 0);
+            } else if (candidateMonth > month) {
+                second = firstSecond;
+                minute = firstMinute;
+                hour = firstHour;
+                day = 1;
+            }
+            month = candidateMonth;
+            long adjustedDays = getUpdatedDays(year, month);
+            candidateDay = nextSetBit(adjustedDays, day - 1) + 1;
+            if (candidateDay < 1) {
+                month++;
+                second = firstSecond;
+                minute = firstMinute;
+                hour = firstHour;
+                day = 1;
+                continue;
+            } else if (candidateDay > day) {
+                second = firstSecond;
+                minute = firstMinute;
+                hour = firstHour;
+            }
+            day = candidateDay;
+            return toLocal(year, month, day, hour, minute, second);
+        }
+    }
+
+    /**
+     * Calculates the previous occurrence strictly before the provided local time,
+     * it mirrors {@link #nextLocal(long)} walking the fields backwards.
+     */
+    private long previousLocal(long baseLocal) {
+        long epochDay = Math.floorDiv(baseLocal, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(baseLocal, SECONDS_PER_DAY);
+        int baseSecond = secondOfDay % 60;
+        int baseMinute = secondOfDay / 60 % 60;
+        int baseHour = secondOfDay / 3600;
+
+        long baseDate = toDate(epochDay);
+        int baseDay = dayOf(baseDate);
+        int baseMonth = monthOf(baseDate);
+        int baseYear = yearOf(baseDate);
+
+        int second = baseSecond;
+        int minute = baseMinute;
+        int hour = baseHour;
+        int day = baseDay;
+        int month = baseMonth;
+        int year = baseYear;
+
+        final int lastSecond = previousSetBit(this.seconds, 59);
+        final int lastMinute = previousSetBit(this.minutes, 59);
+        final int lastHour = previousSetBit(this.hours, 23);
+
+        // unlike the forward search, the seconds of a 5 fields expression can't be
+        // skipped, as the minute of the base time itself may be the previous one
+        second--;
+        second = previousSetBit(this.seconds, second);
+        if (second < 0) {
+            second = lastSecond;
+            minute--;
+        }
+
+        minute = previousSetBit(this.minutes, minute);
+        if (minute < 0) {
+            hour--;
+            second = lastSecond;
+            minute = lastMinute;
+        } else if (minute < baseMinute) {
+            second = lastSecond;
+        }
+
+        hour = previousSetBit(this.hours, hour);
+        if (hour < 0) {
+            day--;
+            second = lastSecond;
+            minute = lastMinute;
+            hour = lastHour;
+        } else if (hour < baseHour) {
+            second = lastSecond;
+            minute = lastMinute;
+        }
+
+        int candidateDay;
+        int candidateMonth;
+        while (true) {
+            candidateMonth = previousSetBit(this.months, month);
+            if (candidateMonth < 0) {
+                year--;
+                second = lastSecond;
+                minute = lastMinute;
+                hour = lastHour;
+                day = 31;
+                candidateMonth = previousSetBit(this.months, 11);
+            } else if (candidateMonth < month) {
+                second = lastSecond;
+                minute = lastMinute;
+                hour = lastHour;
+                day = 31;
+            }
+            month = candidateMonth;
+            long adjustedDays = getUpdatedDays(year, month);
+            candidateDay = previousSetBit(adjustedDays, day - 1) + 1;
+            if (candidateDay < 1) {
+                month--;
+                second = lastSecond;
+                minute = lastMinute;
+                hour = lastHour;
+                day = 31;
+                continue;
+            } else if (candidateDay < day) {
+                second = lastSecond;
+                minute = lastMinute;
+                hour = lastHour;
+            }
+            day = candidateDay;
+            return toLocal(year, month, day, hour, minute, second);
+        }
+    }
+
+    /**
+     * Returns the local seconds of the provided date and time, month is zero
+     * based.
+     */
+    private static long toLocal(int year, int month, int day, int hour, int minute, int second) {
+        return toEpochDay(year, month, day) * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+    }
+
+    /**
+     * Returns the epoch day of the provided date, month is zero based.
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        // see http://howardhinnant.github.io/date_algorithms.html
+        int y = month < 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        int yearOfEra = (int) (y - era * 400);
+        int dayOfYear = (153 * (month < 2 ? month + 10 : month - 2) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns the date of the provided epoch day packed in a long, to be decoded
+     * by {@link #yearOf(long)}, {@link #monthOf(long)} and {@link #dayOf(long)}.
+     */
+    static long toDate(long epochDay) {
+        // see http://howardhinnant.github.io/date_algorithms.html
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        int dayOfEra = (int) (z - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        int month = shiftedMonth < 10 ? shiftedMonth + 2 : shiftedMonth - 10;
+        long year = yearOfEra + era * 400 + (month < 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    static int yearOf(long date) {
+        return (int) (date >> 9);
+    }
+
+    static int monthOf(long date) {
+        return (int) (date >> 5) & 0xF;
+    }
+
+    static int dayOf(long date) {
+        return (int) date & 0x1F;
+    }
+
+    private boolean canScheduleActuallyOccur() {
+        if (this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.UNION || nextSetBit(this.days, 0) < 29)
+            return true;
+
+        // 2000 is a leap year, so every month has its maximum length
+        int aYear = 2000;
+        for (int dayIndex = 29; dayIndex < 31; dayIndex++) {
+            if ((this.days & (1L << dayIndex)) == 0)
+                continue;
+
+            for (int monthIndex = 0; monthIndex < 12; monthIndex++) {
+                if ((this.months & (1L << monthIndex)) == 0)
+                    continue;
+
+                if (dayIndex + 1 <= CalendarTable.lengthOfMonth(aYear, monthIndex))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Detects whether the times of day of the schedule form an arithmetic
+     * progression that wraps around midnight, i.e. the fields below some field are
+     * single values, that field is a step dividing its range, and the fields
+     * above it are full.
+     */
+    private void computeFixedPeriod() {
+        if (this.isLastDayOfMonth || this.isSpecificLastDayOfMonth || this.months != (1L << 12) - 1
+                || this.days != MONTH_DAYS_MASK || this.daysOfWeek != (1L << 7) - 1) {
+            return;
+        }
+        // find the stepped field, the first field that isn't a single value below
+        // the hours, and whether the fields above it are full
+        long mask = this.seconds;
+        int length = 60;
+        long unit = 1;
+        long offset = 0;
+        boolean higherFieldsFull = this.minutes == (1L << 60) - 1 && this.hours == (1L << 24) - 1;
+        if (Long.bitCount(mask) == 1) {
+            offset = Long.numberOfTrailingZeros(mask);
+            mask = this.minutes;
+            unit = 60;
+            higherFieldsFull = this.hours == (1L << 24) - 1;
+            if (Long.bitCount(mask) == 1) {
+                offset += Long.numberOfTrailingZeros(mask) * unit;
+                mask = this.hours;
+                length = 24;
+                unit = 3600;
+                higherFieldsFull = true;
+            }
+        }
+        if (!higherFieldsFull) {
+            return;
+        }
+        int first = Long.numberOfTrailingZeros(mask);
+        int step = Long.bitCount(mask) == 1 ? length : nextSetBit(mask, first + 1) - first;
+        if (length % step != 0) {
+            return;
+        }
+        long steppedMask = 0;
+        for (int value = first % step; value < length; value += step) {
+            steppedMask |= 1L << value;
+        }
+        if (mask != steppedMask) {
+            return;
+        }
+        this.fixedPeriod = step * unit;
+        this.fixedPeriodOffset = offset + first * unit;
+    }
+
+    /**
+     * Rewrites the days and the days of week to a single form for each set of
+     * days the schedule occurs on, so equal schedules have equal fields.
+     */
+    private void normalizeDays() {
+        long allDaysOfWeek = (1L << 7) - 1;
+        if (this.isLastDayOfMonth) {
+            // the last day of the month occurs regardless of the day of week
+            this.daysOfWeek = allDaysOfWeek;
+            this.daysAndDaysOfWeekRelation = DaysAndDaysOfWeekRelation.INTERSECT;
+            return;
+        }
+        if (this.isSpecificLastDayOfMonth) {
+            return;
+        }
+        // days after the end of the longest selected month never occur
+        long occurringDays = (1L << this.longestMonthLength()) - 1;
+        this.days &= occurringDays;
+        if (this.days == occurringDays) {
+            this.days = MONTH_DAYS_MASK;
+        }
+        if (this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.UNION) {
+            if (this.days == 0) {
+                // only the days of week occur
+                this.days = MONTH_DAYS_MASK;
+                this.daysAndDaysOfWeekRelation = DaysAndDaysOfWeekRelation.INTERSECT;
+            } else if (this.days == MONTH_DAYS_MASK || this.daysOfWeek == allDaysOfWeek) {
+                // every day occurs
+                this.days = MONTH_DAYS_MASK;
+                this.daysOfWeek = allDaysOfWeek;
+                this.daysAndDaysOfWeekRelation = DaysAndDaysOfWeekRelation.INTERSECT;
+            }
+        }
+    }
+
+    private int longestMonthLength() {
+        int length = 0;
+        for (int month = 0; month < 12; month++) {
+            if ((this.months & (1L << month)) != 0) {
+                // 2000 is a leap year, so every month has its maximum length
+                length = Math.max(length, CalendarTable.lengthOfMonth(2000, month));
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Formats a field mask as the shortest of a list of values and ranges, or a
+     * single stepped range.
+     *
+     * @param mask     bit i represents the value {@code i + minValue}.
+     * @param minValue the first value of the field.
+     * @param length   the number of values of the field.
+     */
+    private static String formatField(long mask, int minValue, int length) {
+        if (mask == (1L << length) - 1) {
+            return "*";
+        }
+        String list = formatList(mask, minValue);
+        int count = Long.bitCount(mask);
+        int first = Long.numberOfTrailingZeros(mask);
+        int last = Long.SIZE - 1 - Long.numberOfLeadingZeros(mask);
+        if (count < 2 || (last - first) % (count - 1) != 0) {
+            return list;
+        }
+        int step = (last - first) / (count - 1);
+        long progression = 0L;
+        for (int i = first; i <= last; i += step) {
+            progression |= 1L << i;
+        }
+        if (progression != mask) {
+            return list;
+        }
+        String stepped;
+        if (last + step < length) {
+            stepped = (first + minValue) + "-" + (last + minValue) + "/" + step;
+        } else if (first == 0) {
+            stepped = "*/" + step;
+        } else {
+            stepped = (first + minValue) + "/" + step;
+        }
+        return stepped.length() < list.length() ? stepped : list;
+    }
+
+    private static String formatList(long mask, int minValue) {
+        StringBuilder builder = new StringBuilder();
+        while (mask != 0) {
+            int first = Long.numberOfTrailingZeros(mask);
+            // the end of the run of consecutive values starting at first
+            int end = Long.numberOfTrailingZeros(~(mask >>> first)) + first;
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            if (end - first >= 3) {
+                builder.append(first + minValue).append('-').append(end - 1 + minValue);
+                mask &= end == Long.SIZE ? 0L : -1L << end;
+            } else {
+                builder.append(first + minValue);
+                mask &= mask - 1;
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns whether the character separates fields, the same characters matched
+     * by the {@code \s} regular expression.
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns the index of the first bit that is set to {@code true} that occurs
+     * on or after the specified starting index, or -1 if there is no such bit.
+     */
+    private static int nextSetBit(long mask, int fromIndex) {
+        if (fromIndex >= Long.SIZE) {
+            return -1;
+        }
+        long word = mask & (-1L << fromIndex);
+        return word == 0 ? -1 : Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns the index of the nearest bit that is set to {@code true} that occurs
+     * on or before the specified starting index, or -1 if there is no such bit.
+     */
+    private static int previousSetBit(long mask, int fromIndex) {
+        if (fromIndex < 0) {
+            return -1;
+        }
+        long word = fromIndex >= Long.SIZE - 1 ? mask : mask & ((2L << fromIndex) - 1);
+        return word == 0 ? -1 : Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+    }
+
+    private static long generateDaysOf5Weeks(long daysOfWeek) {
+        int weekLength = 7;
+        int setLength = weekLength + 31;
+        long mask = 0;
+        for (int i = 0; i < setLength; i += weekLength) {
+            mask |= (daysOfWeek & 0x7F) << i;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the days of the month on which the schedule occurs, month is zero
+     * based. The first day of week and the length of the month are read from a
+     * single entry of {@link CalendarTable}.
+     */
+    private long getUpdatedDays(int year, int month) {
+        int packedMonth = CalendarTable.monthOf(year, month);
+        int daysOf5WeeksOffset = CalendarTable.firstDayOfWeekOf(packedMonth);
+        long monthDaysOfWeeks = (this.daysOf5Weeks >>> daysOf5WeeksOffset) & MONTH_DAYS_MASK;
+        long updatedDays = this.days;
+        if (this.isSpecificLastDayOfMonth || this.daysAndDaysOfWeekRelation == DaysAndDaysOfWeekRelation.INTERSECT) {
+            updatedDays &= monthDaysOfWeeks;
+        } else {
+            updatedDays |= monthDaysOfWeeks;
+        }
+        int monthDaysCount = CalendarTable.lengthOf(packedMonth);
+        // remove days beyond month length
+        updatedDays &= (1L << monthDaysCount) - 1;
+
+        if (this.isLastDayOfMonth) { // remove all days except last day of month
+            updatedDays = 1L << (monthDaysCount - 1);
+        } else if (this.isSpecificLastDayOfMonth) { // remove days before the last 7 days
+            updatedDays &= -1L << (monthDaysCount - 7);
+        }
         return updatedDays;
     }
 }
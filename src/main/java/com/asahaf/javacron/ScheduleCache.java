@@ -0,0 +1,196 @@
+package com.asahaf.javacron;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of parsed schedules, so the same expressions share a single
+ * Schedule object instead of parsing and keeping a separate copy for every use.
+ *
+ * <p>
+ * The cache is looked up by the expression, ignoring the case and the amount
+ * of whitespace between the fields. Expressions that are written differently
+ * but produce the same schedule, like {@code "0,30 * * * *"} and
+ * {@code "0-59/30 * * * *"}, share a single instance too. As a result,
+ * {@link Schedule#getExpression()} of a cached schedule returns the expression
+ * that created it first.
+ *
+ * <p>
+ * When the cache is full, the least recently used schedules are evicted. The
+ * cache is safe to use from multiple threads.
+ *
+ * <pre>
+ * ScheduleCache cache = new ScheduleCache(10000);
+ * Schedule schedule = cache.create("0 9 * * mon-fri");
+ * </pre>
+ */
+public final class ScheduleCache {
+
+    private final int maximumSize;
+    private final Object lock = new Object();
+    private final Map<String, Schedule> expressions;
+    private final Map<Schedule, Schedule> schedules;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maximumSize the maximum number of expressions kept in the cache.
+     */
+    public ScheduleCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximum size must be positive: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.expressions = new LinkedHashMap<String, Schedule>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Schedule> eldest) {
+                if (this.size() > ScheduleCache.this.maximumSize) {
+                    ScheduleCache.this.evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.schedules = new LinkedHashMap<Schedule, Schedule>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Schedule, Schedule> eldest) {
+                return this.size() > ScheduleCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached schedule of the expression, parsing and caching it if
+     * it's not cached yet.
+     *
+     * @param expression a crontab expression, as accepted by
+     *                   {@link Schedule#create(String)}.
+     * @return the shared Schedule object of the expression.
+     * @throws InvalidExpressionException if the provided crontab expression is
+     *                                    invalid. Invalid expressions are not
+     *                                    cached.
+     */
+    public Schedule create(String expression) throws InvalidExpressionException {
+        String key = normalize(expression);
+        synchronized (this.lock) {
+            Schedule schedule = this.expressions.get(key);
+            if (schedule != null) {
+                this.hitCount++;
+                return schedule;
+            }
+            this.missCount++;
+        }
+
+        // parsing is done out of the lock, so a slow parse doesn't block lookups
+        Schedule parsed = Schedule.create(expression);
+        synchronized (this.lock) {
+            Schedule schedule = this.schedules.get(parsed);
+            if (schedule == null) {
+                schedule = parsed;
+                this.schedules.put(schedule, schedule);
+            }
+            Schedule existing = this.expressions.putIfAbsent(key, schedule);
+            return existing != null ? existing : schedule;
+        }
+    }
+
+    /**
+     * Returns the number of expressions currently in the cache.
+     *
+     * @return the number of cached expressions.
+     */
+    public int size() {
+        synchronized (this.lock) {
+            return this.expressions.size();
+        }
+    }
+
+    /**
+     * Returns the number of times {@link #create} returned a cached schedule
+     * without parsing the expression.
+     *
+     * @return the number of cache hits.
+     */
+    public long hitCount() {
+        synchronized (this.lock) {
+            return this.hitCount;
+        }
+    }
+
+    /**
+     * Returns the number of times {@link #create} had to parse the expression,
+     * including expressions that turned out to be invalid.
+     *
+     * @return the number of cache misses.
+     */
+    public long missCount() {
+        synchronized (this.lock) {
+            return this.missCount;
+        }
+    }
+
+    /**
+     * Returns the number of expressions evicted from the cache to keep it within
+     * its maximum size.
+     *
+     * @return the number of evictions.
+     */
+    public long evictionCount() {
+        synchronized (this.lock) {
+            return this.evictionCount;
+        }
+    }
+
+    /**
+     * Removes all the schedules from the cache. The counters are not reset.
+     */
+    public void clear() {
+        synchronized (this.lock) {
+            this.expressions.clear();
+            this.schedules.clear();
+        }
+    }
+
+    /**
+     * Returns the expression in lower case with its fields separated by a single
+     * space, or the expression itself if it's already normalized.
+     */
+    private static String normalize(String expression) {
+        StringBuilder builder = null;
+        int length = expression.length();
+        int start = 0;
+        while (start < length && Schedule.isWhitespace(expression.charAt(start))) {
+            start++;
+        }
+        int end = length;
+        while (end > start && Schedule.isWhitespace(expression.charAt(end - 1))) {
+            end--;
+        }
+        boolean previousIsWhitespace = false;
+        for (int i = start; i < end; i++) {
+            char c = expression.charAt(i);
+            boolean isWhitespace = Schedule.isWhitespace(c);
+            char normalized = isWhitespace ? ' ' : Character.toLowerCase(c);
+            boolean skip = isWhitespace && previousIsWhitespace;
+            if (builder == null && (skip || normalized != c)) {
+                builder = new StringBuilder(end - start);
+                builder.append(expression, start, i);
+            }
+            if (builder != null && !skip) {
+                builder.append(normalized);
+            }
+            previousIsWhitespace = isWhitespace;
+        }
+        if (builder != null) {
+            return builder.toString();
+        }
+        return start == 0 && end == length ? expression : expression.substring(start, end);
+    }
+}
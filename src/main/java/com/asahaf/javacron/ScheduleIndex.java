@@ -0,0 +1,269 @@
+package com.asahaf.javacron;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An index of values, like jobs, by the schedules they run on, which finds the
+ * values that are due at a time without calculating the next occurrence of
+ * every schedule.
+ *
+ * <p>
+ * Values are grouped by equal schedules, and the groups are kept in a binary
+ * heap ordered by the next occurrence of their schedule. The next occurrence of
+ * a schedule is calculated once when it's added to the index and once every
+ * time it's due, no matter how many values run on it. The values of a group are
+ * kept in a hash map of their counts, so adding and removing a value take O(1)
+ * amortized time however many values share its schedule, plus O(log n) time in
+ * the number of distinct schedules when its group is added or removed. Polling
+ * takes O(log n) time per due schedule, plus the time to list its values.
+ *
+ * <pre>
+ * ScheduleIndex&lt;Job&gt; index = new ScheduleIndex&lt;&gt;(ZoneId.systemDefault());
+ * index.add(Schedule.create("0 * * * *"), job);
+ * ...
+ * for (Job due : index.pollDue(System.currentTimeMillis())) {
+ *     due.run();
+ * }
+ * </pre>
+ *
+ * <p>
+ * The index is not thread-safe, like the collections of {@code java.util}, it
+ * must be synchronized externally if it's accessed from multiple threads.
+ *
+ * @param <T> the type of the values of the index.
+ */
+public final class ScheduleIndex<T> {
+
+    private static final class Group<T> {
+        private final Schedule schedule;
+        // the number of instances of each value, in the order values were first added
+        private final Map<T, Integer> values = new LinkedHashMap<>(2);
+        private int heapIndex;
+
+        private Group(Schedule schedule) {
+            this.schedule = schedule;
+        }
+    }
+
+    private final ZoneOffsets offsets;
+    private final Map<Schedule, Group<T>> groups = new HashMap<>();
+    // the heap of groups and the next occurrence of each group in epoch seconds,
+    // kept in a separate array so sifting only compares primitives
+    private Group<T>[] heap;
+    private long[] heapTimes;
+    private int heapSize;
+    private int size;
+    private long currentEpochSecond;
+
+    /**
+     * Creates an empty index evaluating the schedules in the provided zone,
+     * starting from the current time.
+     *
+     * @param zone the time zone in which the schedules are evaluated.
+     */
+    public ScheduleIndex(ZoneId zone) {
+        this(zone, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates an empty index evaluating the schedules in the provided zone,
+     * starting from the provided time. Schedules added to the index are due at
+     * their first occurrence after the start time, or after the last time passed
+     * to {@link #pollDue} if it's later.
+     *
+     * @param zone             the time zone in which the schedules are evaluated.
+     * @param startEpochMillis start time in milliseconds from the epoch.
+     */
+    @SuppressWarnings("unchecked")
+    public ScheduleIndex(ZoneId zone, long startEpochMillis) {
+        this.offsets = ZoneOffsets.of(zone);
+        this.currentEpochSecond = Math.floorDiv(startEpochMillis, 1000L);
+        this.heap = (Group<T>[]) new Group<?>[16];
+        this.heapTimes = new long[16];
+    }
+
+    /**
+     * Adds a value on the provided schedule.
+     *
+     * @param schedule the schedule of the value.
+     * @param value    the value to add.
+     */
+    public void add(Schedule schedule, T value) {
+        Group<T> group = this.groups.get(schedule);
+        if (group == null) {
+            group = new Group<>(schedule);
+            this.groups.put(schedule, group);
+            this.offer(group, schedule.nextEpochSecond(this.currentEpochSecond, this.offsets));
+        }
+        group.values.merge(value, 1, Integer::sum);
+        this.size++;
+    }
+
+    /**
+     * Removes a single instance of the value from the provided schedule, if it's
+     * present.
+     *
+     * @param schedule the schedule the value was added on.
+     * @param value    the value to remove.
+     * @return {@code true} if the value was removed; {@code false} otherwise.
+     */
+    public boolean remove(Schedule schedule, T value) {
+        Group<T> group = this.groups.get(schedule);
+        Integer count = group == null ? null : group.values.get(value);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            group.values.remove(value);
+        } else {
+            group.values.put(value, count - 1);
+        }
+        this.size--;
+        if (group.values.isEmpty()) {
+            this.groups.remove(schedule);
+            this.removeAt(group.heapIndex);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the due schedules from the head of the index and returns their
+     * values. The schedules are added back at their next occurrence after the
+     * provided time, so occurrences missed by polling late are reported once.
+     *
+     * @param nowEpochMillis the current time in milliseconds from the epoch.
+     * @return the values of the schedules that occurred at or before the provided
+     *         time, ordered by the occurrences of their schedules. The values of
+     *         a schedule are in the order they were first added, with the
+     *         instances of a value added more than once next to each other.
+     */
+    public List<T> pollDue(long nowEpochMillis) {
+        long nowEpochSecond = Math.floorDiv(nowEpochMillis, 1000L);
+        this.currentEpochSecond = Math.max(this.currentEpochSecond, nowEpochSecond);
+        List<T> due = new ArrayList<>();
+        while (this.heapSize > 0 && this.heapTimes[0] <= nowEpochSecond) {
+            Group<T> group = this.heap[0];
+            for (Map.Entry<T, Integer> value : group.values.entrySet()) {
+                for (int i = value.getValue(); i > 0; i--) {
+                    due.add(value.getKey());
+                }
+            }
+            this.heapTimes[0] = group.schedule.nextEpochSecond(nowEpochSecond, this.offsets);
+            this.siftDown(0);
+        }
+        return due;
+    }
+
+    /**
+     * Returns the time of the next occurrence of the schedules in the index.
+     *
+     * @return the next occurrence in milliseconds from the epoch, or
+     *         {@code Long.MAX_VALUE} if the index is empty.
+     */
+    public long nextEpochMillis() {
+        return this.heapSize == 0 ? Long.MAX_VALUE : this.heapTimes[0] * 1000L;
+    }
+
+    /**
+     * Returns the number of values in the index.
+     *
+     * @return the number of values.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of distinct schedules in the index.
+     *
+     * @return the number of distinct schedules.
+     */
+    public int scheduleCount() {
+        return this.heapSize;
+    }
+
+    /**
+     * Returns whether the index has no values.
+     *
+     * @return {@code true} if the index is empty; {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    private void offer(Group<T> group, long time) {
+        if (this.heapSize == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.heapSize * 2);
+            this.heapTimes = Arrays.copyOf(this.heapTimes, this.heapSize * 2);
+        }
+        int index = this.heapSize++;
+        this.heap[index] = group;
+        this.heapTimes[index] = time;
+        group.heapIndex = index;
+        this.siftUp(index);
+    }
+
+    private void removeAt(int index) {
+        int last = --this.heapSize;
+        Group<T> moved = this.heap[last];
+        long time = this.heapTimes[last];
+        this.heap[last] = null;
+        if (index != last) {
+            // fill the hole with the last group and restore the heap order around it
+            this.set(index, moved, time);
+            this.siftDown(index);
+            if (moved.heapIndex == index) {
+                this.siftUp(index);
+            }
+        }
+    }
+
+    private void siftUp(int index) {
+        Group<T> group = this.heap[index];
+        long time = this.heapTimes[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (this.heapTimes[parent] <= time) {
+                break;
+            }
+            this.move(parent, index);
+            index = parent;
+        }
+        this.set(index, group, time);
+    }
+
+    private void siftDown(int index) {
+        Group<T> group = this.heap[index];
+        long time = this.heapTimes[index];
+        int half = this.heapSize >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < this.heapSize && this.heapTimes[right] < this.heapTimes[child]) {
+                child = right;
+            }
+            if (time <= this.heapTimes[child]) {
+                break;
+            }
+            this.move(child, index);
+            index = child;
+        }
+        this.set(index, group, time);
+    }
+
+    private void move(int from, int to) {
+        this.set(to, this.heap[from], this.heapTimes[from]);
+    }
+
+    private void set(int index, Group<T> group, long time) {
+        this.heap[index] = group;
+        this.heapTimes[index] = time;
+        group.heapIndex = index;
+    }
+}
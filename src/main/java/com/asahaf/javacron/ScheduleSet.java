@@ -0,0 +1,194 @@
+package com.asahaf.javacron;
+
+import java.time.ZoneId;
+import java.util.Collection;
+
+/**
+ * An immutable set of schedules that finds all the schedules occurring at an
+ * instant in a single pass.
+ *
+ * <p>
+ * The fields of the schedules are stored in parallel arrays of primitives, one
+ * array per field, and an instant is matched against all the schedules in a
+ * tight loop over the arrays, testing each field with a precomputed bit of the
+ * instant. The matching schedules are reported as a bitmap of their indexes in
+ * the set, in the layout of {@link java.util.BitSet#toLongArray()}.
+ *
+ * <pre>
+ * ScheduleSet set = new ScheduleSet(schedules);
+ * long[] bitmap = set.matches(Instant.now().getEpochSecond(), zone);
+ * BitSet due = BitSet.valueOf(bitmap);
+ * </pre>
+ */
+public final class ScheduleSet {
+
+    // how the days and the days of week of a schedule are combined
+    private static final byte INTERSECT = 0;
+    private static final byte UNION = 1;
+    private static final byte LAST_DAY_OF_MONTH = 2;
+    private static final byte SPECIFIC_LAST_DAY_OF_MONTH = 3;
+
+    private final Schedule[] schedules;
+    private final long[] seconds;
+    private final long[] minutes;
+    private final int[] hours;
+    private final int[] days;
+    private final short[] months;
+    private final byte[] daysOfWeek;
+    private final byte[] relations;
+
+    /**
+     * Creates a set of the provided schedules, indexed in their iteration order.
+     *
+     * @param schedules the schedules of the set.
+     */
+    public ScheduleSet(Collection<Schedule> schedules) {
+        int size = schedules.size();
+        this.schedules = schedules.toArray(new Schedule[size]);
+        this.seconds = new long[size];
+        this.minutes = new long[size];
+        this.hours = new int[size];
+        this.days = new int[size];
+        this.months = new short[size];
+        this.daysOfWeek = new byte[size];
+        this.relations = new byte[size];
+        for (int i = 0; i < size; i++) {
+            Schedule schedule = this.schedules[i];
+            this.seconds[i] = schedule.getSecondsMask();
+            this.minutes[i] = schedule.getMinutesMask();
+            this.hours[i] = (int) schedule.getHoursMask();
+            this.days[i] = (int) schedule.getDaysMask();
+            this.months[i] = (short) schedule.getMonthsMask();
+            this.daysOfWeek[i] = (byte) schedule.getDaysOfWeekMask();
+            if (schedule.isLastDayOfMonth()) {
+                this.relations[i] = LAST_DAY_OF_MONTH;
+            } else if (schedule.isSpecificLastDayOfMonth()) {
+                this.relations[i] = SPECIFIC_LAST_DAY_OF_MONTH;
+            } else {
+                this.relations[i] = schedule.isDaysUnion() ? UNION : INTERSECT;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of schedules in the set.
+     *
+     * @return the number of schedules.
+     */
+    public int size() {
+        return this.schedules.length;
+    }
+
+    /**
+     * Returns the schedule at the provided index.
+     *
+     * @param index the index of the schedule.
+     * @return the schedule at the index.
+     */
+    public Schedule get(int index) {
+        return this.schedules[index];
+    }
+
+    /**
+     * Finds the schedules occurring at the provided instant.
+     *
+     * @param epochSecond seconds from the epoch of the instant.
+     * @param zone        time zone in which the schedules are evaluated.
+     * @return bitmap in which bit {@code i % 64} of word {@code i / 64} is set if
+     *         the schedule at index {@code i} occurs at the instant.
+     * @see Schedule#matches(long, ZoneId)
+     */
+    public long[] matches(long epochSecond, ZoneId zone) {
+        long[] bitmap = new long[(this.schedules.length + 63) >>> 6];
+        this.matches(epochSecond, zone, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Finds the schedules occurring at the provided instant, writing them to a
+     * caller-supplied bitmap so repeated calls don't allocate.
+     *
+     * @param epochSecond seconds from the epoch of the instant.
+     * @param zone        time zone in which the schedules are evaluated.
+     * @param bitmap      bitmap receiving the matching schedules, in which bit
+     *                    {@code i % 64} of word {@code i / 64} is set if the
+     *                    schedule at index {@code i} occurs at the instant. It
+     *                    must have at least {@code (size() + 63) / 64} words.
+     * @return the number of matching schedules.
+     */
+    public int matches(long epochSecond, ZoneId zone, long[] bitmap) {
+        int size = this.schedules.length;
+        int words = (size + 63) >>> 6;
+        if (bitmap.length < words) {
+            throw new IllegalArgumentException("bitmap is too short: " + bitmap.length + " < " + words);
+        }
+        ZoneOffsets offsets = ZoneOffsets.of(zone);
+        int count = 0;
+        if (offsets.transitionWindowEnd(epochSecond) > epochSecond) {
+            // shifted or repeated local times make the local time ambiguous, so
+            // every schedule is checked on its own
+            for (int word = 0; word < words; word++) {
+                long bits = 0L;
+                int start = word << 6;
+                int end = Math.min(start + 64, size);
+                for (int i = start; i < end; i++) {
+                    if (this.schedules[i].matches(epochSecond, offsets)) {
+                        bits |= 1L << (i - start);
+                    }
+                }
+                bitmap[word] = bits;
+                count += Long.bitCount(bits);
+            }
+            return count;
+        }
+
+        long local = offsets.toLocal(epochSecond);
+        long epochDay = Math.floorDiv(local, 86400L);
+        int secondOfDay = (int) (local - epochDay * 86400L);
+        long date = Schedule.toDate(epochDay);
+        int month = Schedule.monthOf(date);
+        int day = Schedule.dayOf(date) - 1;
+        int monthLength = CalendarTable.lengthOfMonth(Schedule.yearOf(date), month);
+        long secondBit = 1L << (secondOfDay % 60);
+        long minuteBit = 1L << (secondOfDay / 60 % 60);
+        int hourBit = 1 << (secondOfDay / 3600);
+        int dayBit = 1 << day;
+        int monthBit = 1 << month;
+        int dayOfWeekBit = 1 << (int) Math.floorMod(epochDay + 4, 7L); // 1970-01-01 is a Thursday
+
+        // truth tables of the day match of each relation, packed four bits per
+        // relation and indexed by whether the day matches (bit 0) and whether the
+        // day of week matches (bit 1)
+        int dayTables = 0b1000 << (INTERSECT << 2) | 0b1110 << (UNION << 2)
+                | (day == monthLength - 1 ? 0b1111 : 0) << (LAST_DAY_OF_MONTH << 2)
+                | (day >= monthLength - 7 ? 0b1100 : 0) << (SPECIFIC_LAST_DAY_OF_MONTH << 2);
+
+        // local copies of the columns let the JIT compiler drop the bound checks
+        long[] seconds = this.seconds;
+        long[] minutes = this.minutes;
+        int[] hours = this.hours;
+        int[] days = this.days;
+        short[] months = this.months;
+        byte[] daysOfWeek = this.daysOfWeek;
+        byte[] relations = this.relations;
+        for (int word = 0; word < words; word++) {
+            long bits = 0L;
+            int start = word << 6;
+            int end = Math.min(start + 64, size);
+            for (int i = start; i < end; i++) {
+                // at any instant most schedules are rejected by their seconds or
+                // minutes, so the rarely taken branches are cheaper than
+                // evaluating every field
+                if ((seconds[i] & secondBit) != 0 && (minutes[i] & minuteBit) != 0 && (hours[i] & hourBit) != 0
+                        && (months[i] & monthBit) != 0) {
+                    int dayIndex = (relations[i] << 2) | ((days[i] & dayBit) != 0 ? 1 : 0)
+                            | ((daysOfWeek[i] & dayOfWeekBit) != 0 ? 2 : 0);
+                    bits |= ((dayTables >>> dayIndex) & 1L) << i;
+                }
+            }
+            bitmap[word] = bits;
+            count += Long.bitCount(bits);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,233 @@
+package com.asahaf.javacron;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+
+/**
+ * A store of schedules kept off the heap, in a direct buffer or a
+ * memory-mapped file, and addressed by integer ids.
+ *
+ * <p>
+ * Each schedule is stored in the binary form of
+ * {@link Schedule#writeTo(ByteBuffer)}, {@link Schedule#BINARY_SIZE} bytes per
+ * schedule, so the heap holds no object per schedule. The next occurrence and
+ * matches of a schedule are evaluated by loading its bytes into a reusable
+ * per-thread schedule, without parsing or allocating.
+ *
+ * <pre>
+ * ScheduleStore store = ScheduleStore.open(Paths.get("schedules.bin"), 1_000_000);
+ * int id = store.add(Schedule.create("0 9 * * 1-5"));
+ * long next = store.nextEpochMillis(id, System.currentTimeMillis(), zone);
+ * </pre>
+ *
+ * <p>
+ * A file starts with an 8 bytes header, holding a magic number and the number
+ * of schedules, followed by the schedules in the order of their ids. The
+ * capacity of a store is fixed when it's created or opened.
+ *
+ * <p>
+ * Evaluating schedules is thread-safe. Adding and replacing schedules are
+ * synchronized with each other, but a schedule must not be evaluated while
+ * it's being replaced.
+ */
+public final class ScheduleStore {
+
+    private static final int MAGIC = 0x4A43524E; // "JCRN"
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / Schedule.BINARY_SIZE;
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private volatile int size;
+    private final ThreadLocal<Schedule> scratch = ThreadLocal.withInitial(Schedule::newScratch);
+
+    /**
+     * Creates an empty store in a direct buffer.
+     *
+     * @param capacity the maximum number of schedules of the store.
+     * @throws IllegalArgumentException if the capacity is negative or too large
+     *                                  for a single buffer.
+     */
+    public ScheduleStore(int capacity) {
+        this(ByteBuffer.allocateDirect(bufferSize(capacity)), 0);
+    }
+
+    private ScheduleStore(ByteBuffer buffer, int size) {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        this.capacity = (buffer.capacity() - HEADER_SIZE) / Schedule.BINARY_SIZE;
+        this.size = size;
+        this.buffer.putInt(0, MAGIC);
+        this.buffer.putInt(4, size);
+    }
+
+    /**
+     * Opens a store in a memory-mapped file, creating the file if it doesn't
+     * exist. The schedules of an existing file are checked when it's opened.
+     *
+     * @param file     the file of the store.
+     * @param capacity the maximum number of schedules of the store, the file is
+     *                 extended to fit them. A larger existing file keeps its
+     *                 capacity.
+     * @return the store.
+     * @throws IOException              if the file can't be mapped or it's not a
+     *                                  valid store.
+     * @throws IllegalArgumentException if the capacity is negative or too large
+     *                                  for a single buffer.
+     */
+    public static ScheduleStore open(Path file, int capacity) throws IOException {
+        int requiredSize = bufferSize(capacity);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize > 0 && (fileSize < HEADER_SIZE || fileSize > bufferSize(MAX_CAPACITY))) {
+                throw new IOException("not a schedule store: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(fileSize, requiredSize));
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (fileSize == 0) {
+                return new ScheduleStore(buffer, 0);
+            }
+        }
+        int size = buffer.getInt(4);
+        if (buffer.getInt(0) != MAGIC || size < 0 || bufferSize(size) > buffer.capacity()) {
+            throw new IOException("not a schedule store: " + file);
+        }
+        ScheduleStore store = new ScheduleStore(buffer, size);
+        for (int id = 0; id < size; id++) {
+            try {
+                Schedule.newScratch().load(buffer, store.indexOf(id), true);
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("invalid schedule " + id + " in " + file, ex);
+            }
+        }
+        return store;
+    }
+
+    private static int bufferSize(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity should be between 0 and " + MAX_CAPACITY + ": " + capacity);
+        }
+        return HEADER_SIZE + capacity * Schedule.BINARY_SIZE;
+    }
+
+    /**
+     * Returns the number of schedules in the store.
+     *
+     * @return the number of schedules.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the maximum number of schedules of the store.
+     *
+     * @return the capacity of the store.
+     */
+    public int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Adds a schedule to the store.
+     *
+     * @param schedule the schedule to add.
+     * @return the id of the schedule, the number of schedules before it.
+     * @throws IllegalStateException if the store is full.
+     */
+    public synchronized int add(Schedule schedule) {
+        int id = this.size;
+        if (id == this.capacity) {
+            throw new IllegalStateException("schedule store is full: " + this.capacity);
+        }
+        schedule.writeTo(this.buffer, HEADER_SIZE + id * Schedule.BINARY_SIZE);
+        this.buffer.putInt(4, id + 1);
+        this.size = id + 1;
+        return id;
+    }
+
+    /**
+     * Replaces the schedule of an id.
+     *
+     * @param id       the id of the schedule.
+     * @param schedule the new schedule.
+     * @throws IndexOutOfBoundsException if there's no schedule with the id.
+     */
+    public synchronized void set(int id, Schedule schedule) {
+        schedule.writeTo(this.buffer, this.indexOf(id));
+    }
+
+    /**
+     * Reads the schedule of an id into a new {@link Schedule} object.
+     *
+     * @param id the id of the schedule.
+     * @return the schedule.
+     * @throws IndexOutOfBoundsException if there's no schedule with the id.
+     */
+    public Schedule get(int id) {
+        Schedule schedule = Schedule.newScratch();
+        schedule.load(this.buffer, this.indexOf(id), false);
+        return schedule;
+    }
+
+    /**
+     * Calculates the next occurrence of the schedule of an id based on provided
+     * base time.
+     *
+     * @param id              the id of the schedule.
+     * @param baseEpochMillis milliseconds from the epoch based on which calculating
+     *                        the next occurrence.
+     * @param zone            time zone in which the schedule is evaluated.
+     * @return milliseconds from the epoch of the next occurrence.
+     * @throws IndexOutOfBoundsException if there's no schedule with the id.
+     * @see Schedule#nextEpochMillis(long, ZoneId)
+     */
+    public long nextEpochMillis(int id, long baseEpochMillis, ZoneId zone) {
+        return this.load(id).nextEpochMillis(baseEpochMillis, zone);
+    }
+
+    /**
+     * Checks whether the schedule of an id occurs at the provided epoch second.
+     *
+     * @param id          the id of the schedule.
+     * @param epochSecond seconds from the epoch of 1970-01-01T00:00:00Z.
+     * @param zone        time zone in which the schedule is evaluated.
+     * @return {@code true} if the schedule occurs at the epoch second;
+     *         {@code false} otherwise.
+     * @throws IndexOutOfBoundsException if there's no schedule with the id.
+     * @see Schedule#matches(long, ZoneId)
+     */
+    public boolean matches(int id, long epochSecond, ZoneId zone) {
+        return this.load(id).matches(epochSecond, zone);
+    }
+
+    /**
+     * Writes the changes of a store in a memory-mapped file to the storage
+     * device. It does nothing for a store in a direct buffer.
+     */
+    public void force() {
+        if (this.buffer instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) this.buffer).force();
+        }
+    }
+
+    private Schedule load(int id) {
+        Schedule schedule = this.scratch.get();
+        schedule.load(this.buffer, this.indexOf(id), false);
+        return schedule;
+    }
+
+    private int indexOf(int id) {
+        if (id < 0 || id >= this.size) {
+            throw new IndexOutOfBoundsException("id: " + id + ", size: " + this.size);
+        }
+        return HEADER_SIZE + id * Schedule.BINARY_SIZE;
+    }
+}
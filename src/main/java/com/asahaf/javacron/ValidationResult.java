@@ -0,0 +1,135 @@
+package com.asahaf.javacron;
+
+/**
+ * The result of validating a crontab expression with
+ * {@link Schedule#validate(CharSequence)}.
+ *
+ * <p>
+ * Unlike {@link Schedule#create(String)}, validation doesn't build exceptions
+ * or error messages, an invalid expression is described by an error code, the
+ * field in which the error was found and the offset of the error.
+ *
+ * <pre>
+ * ValidationResult result = Schedule.validate(expression);
+ * if (!result.isValid()) {
+ *     return badRequest(result.getErrorCode(), result.getField(), result.getErrorOffset());
+ * }
+ * </pre>
+ */
+public final class ValidationResult {
+
+    /**
+     * The kinds of errors of invalid expressions.
+     */
+    public enum ErrorCode {
+        /** The expression is empty. */
+        EMPTY,
+        /** The expression doesn't have 5 or 6 fields. */
+        FIELD_COUNT,
+        /** A value is missing, isn't a number or a known name, or is followed by unexpected characters. */
+        INVALID_VALUE,
+        /** A value is below the minimum value of its field. */
+        BELOW_MINIMUM,
+        /** A value is above the maximum value of its field. */
+        ABOVE_MAXIMUM,
+        /** The start of a range is after its end. */
+        INVALID_RANGE,
+        /** A step is less than 1. */
+        INVALID_STEP,
+        /** The last day of the month is in both the day and the day of week fields. */
+        LAST_DAY_CONFLICT,
+        /** The last day of week of the month is used with a day field other than {@code *}. */
+        LAST_DAY_OF_WEEK_WITH_DAYS,
+        /** The schedule never occurs, like on the 30th of February. */
+        NEVER_OCCURS
+    }
+
+    // an error is packed in a negative long, so the parsers can return either a
+    // mask or an error without allocating: the code in bits 48-55, the field
+    // ordinal + 1 in bits 40-47 and the offset + 1 in bits 0-31
+    static final long NO_ERROR = 0L;
+
+    private static final ErrorCode[] ERROR_CODES = ErrorCode.values();
+    private static final CronFieldType[] FIELDS = CronFieldType.values();
+    private static final ValidationResult VALID = new ValidationResult(NO_ERROR);
+
+    private final long error;
+
+    private ValidationResult(long error) {
+        this.error = error;
+    }
+
+    static ValidationResult of(long error) {
+        return error == NO_ERROR ? VALID : new ValidationResult(error);
+    }
+
+    static long error(ErrorCode code, int offset) {
+        return Long.MIN_VALUE | (long) code.ordinal() << 48 | ((offset + 1) & 0xFFFFFFFFL);
+    }
+
+    static long withField(long error, CronFieldType field) {
+        return error | (long) (field.ordinal() + 1) << 40;
+    }
+
+    static ErrorCode codeOf(long error) {
+        return ERROR_CODES[(int) (error >>> 48) & 0xFF];
+    }
+
+    static CronFieldType fieldOf(long error) {
+        int field = (int) (error >>> 40) & 0xFF;
+        return field == 0 ? null : FIELDS[field - 1];
+    }
+
+    static int offsetOf(long error) {
+        return (int) error - 1;
+    }
+
+    /**
+     * Returns whether the expression is valid.
+     *
+     * @return {@code true} if the expression is valid; {@code false} otherwise.
+     */
+    public boolean isValid() {
+        return this.error == NO_ERROR;
+    }
+
+    /**
+     * Returns the kind of the error of an invalid expression.
+     *
+     * @return the error code, or {@code null} if the expression is valid.
+     */
+    public ErrorCode getErrorCode() {
+        return this.isValid() ? null : codeOf(this.error);
+    }
+
+    /**
+     * Returns the field in which the error of an invalid expression was found.
+     *
+     * @return the field, or {@code null} if the expression is valid or the error
+     *         is not related to a single field, like a wrong number of fields.
+     */
+    public CronFieldType getField() {
+        return this.isValid() ? null : fieldOf(this.error);
+    }
+
+    /**
+     * Returns the position in the expression where the error was found, the same
+     * offset reported by {@link InvalidExpressionException#getErrorOffset()}.
+     *
+     * @return the zero based offset of the error in the expression, or -1 if the
+     *         expression is valid or the error is not related to a specific
+     *         position.
+     */
+    public int getErrorOffset() {
+        return this.isValid() ? -1 : offsetOf(this.error);
+    }
+
+    @Override
+    public String toString() {
+        if (this.isValid()) {
+            return "valid";
+        }
+        CronFieldType field = this.getField();
+        return this.getErrorCode() + (field == null ? "" : " in " + field) + " at " + this.getErrorOffset();
+    }
+}
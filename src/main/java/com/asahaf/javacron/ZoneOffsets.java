@@ -0,0 +1,264 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Converts between epoch seconds and local (wall-clock) seconds of a time zone.
+ *
+ * <p>
+ * Local seconds are the number of seconds from 1970-01-01T00:00:00 on the
+ * wall-clock of the zone, the same value returned by
+ * {@code LocalDateTime.toEpochSecond(ZoneOffset.UTC)}.
+ *
+ * <p>
+ * The offset transitions of the zone are precomputed per year, so converting a
+ * time only scans the few transitions of its year instead of resolving the
+ * offset with the zone rules every time.
+ */
+final class ZoneOffsets {
+
+    private static final ConcurrentMap<ZoneId, ZoneOffsets> CACHE = new ConcurrentHashMap<>();
+    private static final int CACHED_YEARS = 4;
+    private static final long SECONDS_PER_DAY = 86400L;
+
+    /**
+     * The offset transitions of a year. The transitions are collected for one day
+     * before and after the year, as a local time may be up to 18 hours away from
+     * its instant.
+     */
+    private static final class YearTransitions {
+        private final long yearStart;
+        private final long yearEnd;
+        private final int initialOffset;
+        private final long[] instants;
+        private final int[] offsetsBefore;
+        private final int[] offsetsAfter;
+
+        private YearTransitions(ZoneRules rules, int year) {
+            this.yearStart = LocalDate.of(year, 1, 1).toEpochDay() * SECONDS_PER_DAY;
+            this.yearEnd = LocalDate.of(year + 1, 1, 1).toEpochDay() * SECONDS_PER_DAY;
+            long rangeStart = this.yearStart - SECONDS_PER_DAY;
+            long rangeEnd = this.yearEnd + SECONDS_PER_DAY;
+            Instant instant = Instant.ofEpochSecond(rangeStart);
+            this.initialOffset = rules.getOffset(instant).getTotalSeconds();
+
+            long[] instants = new long[4];
+            int[] offsetsBefore = new int[4];
+            int[] offsetsAfter = new int[4];
+            int count = 0;
+            ZoneOffsetTransition transition = rules.nextTransition(instant);
+            while (transition != null && transition.toEpochSecond() < rangeEnd) {
+                if (count == instants.length) {
+                    instants = Arrays.copyOf(instants, count * 2);
+                    offsetsBefore = Arrays.copyOf(offsetsBefore, count * 2);
+                    offsetsAfter = Arrays.copyOf(offsetsAfter, count * 2);
+                }
+                instants[count] = transition.toEpochSecond();
+                offsetsBefore[count] = transition.getOffsetBefore().getTotalSeconds();
+                offsetsAfter[count] = transition.getOffsetAfter().getTotalSeconds();
+                count++;
+                transition = rules.nextTransition(transition.getInstant());
+            }
+            this.instants = Arrays.copyOf(instants, count);
+            this.offsetsBefore = Arrays.copyOf(offsetsBefore, count);
+            this.offsetsAfter = Arrays.copyOf(offsetsAfter, count);
+        }
+
+        private boolean contains(long second) {
+            return this.yearStart <= second && second < this.yearEnd;
+        }
+    }
+
+    private final ZoneRules rules;
+    private final boolean isFixedOffset;
+    private final int fixedOffset;
+    // YearTransitions is immutable, so the slots can be shared between threads
+    // without synchronization. A racing thread may only compute a year twice.
+    private final YearTransitions[] years = new YearTransitions[CACHED_YEARS];
+
+    private ZoneOffsets(ZoneId zone) {
+        this.rules = zone.getRules();
+        this.isFixedOffset = this.rules.isFixedOffset();
+        this.fixedOffset = this.isFixedOffset ? this.rules.getOffset(Instant.EPOCH).getTotalSeconds() : 0;
+    }
+
+    static ZoneOffsets of(ZoneId zone) {
+        ZoneOffsets offsets = CACHE.get(zone);
+        if (offsets == null) {
+            offsets = new ZoneOffsets(zone);
+            ZoneOffsets existing = CACHE.putIfAbsent(zone, offsets);
+            if (existing != null) {
+                offsets = existing;
+            }
+        }
+        return offsets;
+    }
+
+    boolean isFixedOffset() {
+        return this.isFixedOffset;
+    }
+
+    private YearTransitions yearOf(long second) {
+        for (int i = 0; i < CACHED_YEARS; i++) {
+            YearTransitions transitions = this.years[i];
+            if (transitions != null && transitions.contains(second)) {
+                return transitions;
+            }
+        }
+        int year = LocalDate.ofEpochDay(Math.floorDiv(second, SECONDS_PER_DAY)).getYear();
+        YearTransitions transitions = new YearTransitions(this.rules, year);
+        this.years[year & (CACHED_YEARS - 1)] = transitions;
+        return transitions;
+    }
+
+    long toLocal(long epochSecond) {
+        if (this.isFixedOffset) {
+            return epochSecond + this.fixedOffset;
+        }
+        YearTransitions transitions = this.yearOf(epochSecond);
+        int offset = transitions.initialOffset;
+        for (int i = 0; i < transitions.instants.length && epochSecond >= transitions.instants[i]; i++) {
+            offset = transitions.offsetsAfter[i];
+        }
+        return epochSecond + offset;
+    }
+
+    /**
+     * Converts local seconds to epoch seconds. Local times that fall in a gap are
+     * shifted forward by the length of the gap, and local times that fall in an
+     * overlap resolve to the earlier of the two instants, exactly like
+     * {@code ZonedDateTime.of(LocalDateTime, ZoneId)}.
+     */
+    long toEpochSecond(long localSecond) {
+        if (this.isFixedOffset) {
+            return localSecond - this.fixedOffset;
+        }
+        YearTransitions transitions = this.yearOf(localSecond);
+        int offset = transitions.initialOffset;
+        for (int i = 0; i < transitions.instants.length; i++) {
+            int before = transitions.offsetsBefore[i];
+            int after = transitions.offsetsAfter[i];
+            long instant = transitions.instants[i];
+            if (localSecond < instant + Math.min(before, after)) {
+                break;
+            }
+            if (localSecond < instant + Math.max(before, after)) {
+                // in the gap or the overlap of this transition
+                return localSecond - before;
+            }
+            offset = after;
+        }
+        return localSecond - offset;
+    }
+
+    /**
+     * Returns the local seconds after which the next occurrence of an epoch
+     * second should be searched. It's the local time of the epoch second, except
+     * during the second pass of an overlap, where the repeated local times have
+     * already occurred and the search continues from the end of the overlap.
+     */
+    long nextSearchBase(long epochSecond) {
+        return this.searchBase(epochSecond, true);
+    }
+
+    /**
+     * Returns the local seconds before which the previous occurrence of an epoch
+     * second should be searched. It's the local time of the epoch second, except
+     * during the second pass of an overlap, where all the repeated local times
+     * have already occurred at their earlier instants.
+     */
+    long previousSearchBase(long epochSecond) {
+        return this.searchBase(epochSecond, false);
+    }
+
+    private long searchBase(long epochSecond, boolean forward) {
+        if (this.isFixedOffset) {
+            return epochSecond + this.fixedOffset;
+        }
+        YearTransitions transitions = this.yearOf(epochSecond);
+        int offset = transitions.initialOffset;
+        for (int i = 0; i < transitions.instants.length && epochSecond >= transitions.instants[i]; i++) {
+            int before = transitions.offsetsBefore[i];
+            offset = transitions.offsetsAfter[i];
+            long overlapEnd = transitions.instants[i] + before;
+            if (before > offset && epochSecond + offset < overlapEnd) {
+                return forward ? overlapEnd - 1 : overlapEnd;
+            }
+        }
+        return epochSecond + offset;
+    }
+
+    /**
+     * Returns the epoch second of the first offset transition after the provided
+     * epoch second, or {@code Long.MAX_VALUE} if the offset never changes again.
+     */
+    long nextTransition(long epochSecond) {
+        if (this.isFixedOffset) {
+            return Long.MAX_VALUE;
+        }
+        YearTransitions transitions = this.yearOf(epochSecond);
+        for (int i = 0; i < transitions.instants.length; i++) {
+            if (transitions.instants[i] > epochSecond) {
+                return transitions.instants[i];
+            }
+        }
+        ZoneOffsetTransition transition = this.rules.nextTransition(Instant.ofEpochSecond(epochSecond));
+        return transition == null ? Long.MAX_VALUE : transition.toEpochSecond();
+    }
+
+    /**
+     * Returns the end of the transition window containing the provided epoch
+     * second, or the epoch second itself if it's not in a transition window.
+     *
+     * <p>
+     * The window of a transition starts at the transition and is as long as the
+     * offset change. In a window after a gap, occurrences of the skipped local
+     * times are shifted between the local times that actually exist, and in a
+     * window after an overlap, the repeated local times don't occur again. Out of
+     * transition windows, an epoch second is an occurrence if and only if its
+     * local time matches the schedule.
+     */
+    long transitionWindowEnd(long epochSecond) {
+        if (this.isFixedOffset) {
+            return epochSecond;
+        }
+        YearTransitions transitions = this.yearOf(epochSecond);
+        for (int i = transitions.instants.length - 1; i >= 0; i--) {
+            long instant = transitions.instants[i];
+            if (instant <= epochSecond) {
+                long windowEnd = instant + Math.abs(transitions.offsetsAfter[i] - transitions.offsetsBefore[i]);
+                return windowEnd > epochSecond ? windowEnd : epochSecond;
+            }
+        }
+        return epochSecond;
+    }
+
+    /**
+     * Returns the length of the gap whose transition window contains the
+     * provided epoch second, or 0 if it's not in the window after a gap. The
+     * window ends at {@link #transitionWindowEnd(long)}, and the skipped local
+     * time shifted to an epoch second of the window is its local time minus the
+     * length of the gap.
+     */
+    long gapLength(long epochSecond) {
+        if (this.isFixedOffset) {
+            return 0;
+        }
+        YearTransitions transitions = this.yearOf(epochSecond);
+        for (int i = transitions.instants.length - 1; i >= 0; i--) {
+            long instant = transitions.instants[i];
+            if (instant <= epochSecond) {
+                int gap = transitions.offsetsAfter[i] - transitions.offsetsBefore[i];
+                return gap > 0 && epochSecond < instant + gap ? gap : 0;
+            }
+        }
+        return 0;
+    }
+}
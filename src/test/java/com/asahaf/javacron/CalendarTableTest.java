@@ -0,0 +1,36 @@
+package com.asahaf.javacron;
+
+import java.time.LocalDate;
+import java.time.Year;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CalendarTableTest {
+
+    @Test
+    public void testMatchesJavaTime() {
+        for (int year = 1600; year <= 2400; year++) {
+            Assert.assertEquals(Year.isLeap(year), CalendarTable.isLeapYear(year));
+            for (int month = 0; month < 12; month++) {
+                LocalDate first = LocalDate.of(year, month + 1, 1);
+                Assert.assertEquals(first.toString(), first.lengthOfMonth(), CalendarTable.lengthOfMonth(year, month));
+                Assert.assertEquals(first.toString(), first.getDayOfWeek().getValue() % 7,
+                        CalendarTable.firstDayOfWeek(year, month));
+                int packedMonth = CalendarTable.monthOf(year, month);
+                Assert.assertEquals(first.toString(), first.lengthOfMonth(), CalendarTable.lengthOf(packedMonth));
+                Assert.assertEquals(first.toString(), first.getDayOfWeek().getValue() % 7,
+                        CalendarTable.firstDayOfWeekOf(packedMonth));
+            }
+        }
+    }
+
+    @Test
+    public void testIsLeapYear() {
+        Assert.assertTrue(Schedule.isLeapYear(2000));
+        Assert.assertTrue(Schedule.isLeapYear(2020));
+        Assert.assertFalse(Schedule.isLeapYear(2019));
+        Assert.assertFalse(Schedule.isLeapYear(1900));
+        Assert.assertFalse(Schedule.isLeapYear(2100));
+    }
+}
@@ -0,0 +1,65 @@
+package com.asahaf.javacron;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrencyLimiterTest {
+
+    @Test
+    public void testDirectExecutorBacklog() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(Runnable::run, 1);
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        Runnable queued = () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            runs.incrementAndGet();
+            running.decrementAndGet();
+        };
+        // the runs are queued while the first one is running, and drained on the
+        // same thread when it completes
+        limiter.execute(() -> {
+            for (int i = 0; i < 100000; i++) {
+                limiter.execute(queued);
+            }
+            Assert.assertEquals(0, runs.get());
+        });
+        Assert.assertEquals(100000, runs.get());
+        Assert.assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testFailingTask() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(Runnable::run, 1);
+        try {
+            limiter.execute(() -> {
+                throw new IllegalStateException();
+            });
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            // thrown through the same-thread executor
+        }
+        AtomicInteger runs = new AtomicInteger();
+        limiter.execute(runs::incrementAndGet);
+        limiter.execute(runs::incrementAndGet);
+        Assert.assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testRejectedRun() {
+        AtomicInteger rejections = new AtomicInteger(1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(task -> {
+            if (rejections.getAndDecrement() > 0) {
+                throw new RejectedExecutionException();
+            }
+            task.run();
+        }, 1);
+        AtomicInteger runs = new AtomicInteger();
+        limiter.execute(runs::incrementAndGet);
+        limiter.execute(runs::incrementAndGet);
+        Assert.assertEquals(1, runs.get());
+    }
+}
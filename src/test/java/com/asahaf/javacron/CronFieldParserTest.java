@@ -406,4 +406,69 @@ public class CronFieldParserTest {
     public void testReachableSchedule1() throws InvalidExpressionException {
         Schedule.create("0 0 30 1 *");
     }
+
+    @Test
+    public void testStepOfName() throws InvalidExpressionException {
+        CronFieldParser parser = new CronFieldParser(CronFieldType.MONTH);
+        BitSet bitSet = parser.parse("feb/3");
+        Assert.assertEquals(1, bitSet.cardinality());
+        Assert.assertTrue(bitSet.get(1));
+        bitSet = parser.parse("2/3");
+        Assert.assertEquals(4, bitSet.cardinality());
+        Assert.assertTrue(bitSet.get(1));
+        Assert.assertTrue(bitSet.get(4));
+        Assert.assertTrue(bitSet.get(7));
+        Assert.assertTrue(bitSet.get(10));
+        bitSet = parser.parse("FEB-jun/2");
+        Assert.assertEquals(3, bitSet.cardinality());
+        Assert.assertTrue(bitSet.get(1));
+        Assert.assertTrue(bitSet.get(3));
+        Assert.assertTrue(bitSet.get(5));
+    }
+
+    @Test
+    public void testLastDayOfWeek() throws InvalidExpressionException {
+        CronFieldParser parser = new CronFieldParser(CronFieldType.DAY_OF_WEEK);
+        Assert.assertEquals(parser.parse("5"), parser.parse("5L"));
+        Assert.assertEquals(parser.parse("5"), parser.parse("5l"));
+    }
+
+    @Test(expected = InvalidExpressionException.class)
+    public void testEmptyListItem() throws InvalidExpressionException {
+        CronFieldParser parser = new CronFieldParser(CronFieldType.MINUTE);
+        parser.parse("1,,2");
+    }
+
+    @Test(expected = InvalidExpressionException.class)
+    public void testTrailingListSeparator() throws InvalidExpressionException {
+        CronFieldParser parser = new CronFieldParser(CronFieldType.MINUTE);
+        parser.parse("1,2,");
+    }
+
+    @Test(expected = InvalidExpressionException.class)
+    public void testNameInNumericField() throws InvalidExpressionException {
+        CronFieldParser parser = new CronFieldParser(CronFieldType.HOUR);
+        parser.parse("5a");
+    }
+
+    @Test
+    public void testErrorOffset() {
+        String[][] cases = { { "0 0 61 * *", "4" }, { "0 12 * 13 *", "7" }, { "  0 0 1-32 * *", "8" },
+                { "0 0 1 * mon-xyz", "12" }, { "0 0 1 * */0", "10" }, { "0 1,,2 * * *", "4" },
+                { "* * * * * * *", "12" }, { "* * * *", "-1" } };
+        for (String[] c : cases) {
+            try {
+                Schedule.create(c[0]);
+                Assert.fail(c[0]);
+            } catch (InvalidExpressionException ex) {
+                Assert.assertEquals(c[0], Integer.parseInt(c[1]), ex.getErrorOffset());
+            }
+        }
+    }
+
+    @Test
+    public void testCaseInsensitiveExpression() throws InvalidExpressionException {
+        Assert.assertEquals(Schedule.create("0 0 l * *"), Schedule.create("0 0 L * *"));
+        Assert.assertEquals(Schedule.create("0 0 * JAN 5l"), Schedule.create("0 0 * jan 5L"));
+    }
 }
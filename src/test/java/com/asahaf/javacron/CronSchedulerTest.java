@@ -0,0 +1,265 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class CronSchedulerTest {
+
+    private static final long START = Instant.parse("2019-01-01T00:00:00.500Z").toEpochMilli();
+
+    @Test
+    public void testRunsAtOccurrences() throws InvalidExpressionException {
+        AtomicLong clock = new AtomicLong(START);
+        List<Long> runs = new ArrayList<>();
+        CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, Runnable::run, clock::get, false);
+        Schedule schedule = Schedule.create("*/20 * * * * *");
+        scheduler.schedule(schedule, () -> runs.add(clock.get() / 1000));
+        for (long time = START; time < START + 3 * 60000; time += 1000) {
+            clock.set(time);
+            scheduler.tick();
+        }
+        List<Long> expected = new ArrayList<>();
+        for (long second = START / 1000 + 20; second < (START + 3 * 60000) / 1000; second += 20) {
+            expected.add(second);
+        }
+        Assert.assertEquals(expected, runs);
+    }
+
+    @Test
+    public void testWheels() throws InvalidExpressionException {
+        ZoneId zone = ZoneId.of("America/New_York");
+        String[] expressions = { "* * * * * *", "*/7 * * * * *", "30 */5 * * * *", "0 0 * * * *", "15 45 3 * * *",
+                "0 30 2 * * *", "0 0 0 * * 1", "0 0 12 1 * *", "0 0 0 L * *", "0 0 0 29 2 *" };
+        // covers the overflow list, a leap day and a daylight saving gap
+        AtomicLong clock = new AtomicLong(Instant.parse("2019-12-25T00:00:00Z").toEpochMilli());
+        CronScheduler scheduler = new CronScheduler(zone, Runnable::run, clock::get, false);
+        long start = clock.get();
+        long end = Instant.parse("2020-03-15T00:00:00Z").toEpochMilli();
+        long[] counts = new long[expressions.length];
+        long[] lastRuns = new long[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            int index = i;
+            Schedule schedule = Schedule.create(expressions[i]);
+            lastRuns[i] = start;
+            scheduler.schedule(schedule, () -> {
+                long now = clock.get();
+                // every run is at the next occurrence after the previous run
+                Assert.assertEquals(expressions[index], schedule.nextEpochMillis(lastRuns[index], zone), now);
+                lastRuns[index] = now;
+                counts[index]++;
+            });
+        }
+        for (long time = start; time < end; time += 1000) {
+            clock.set(time);
+            scheduler.tick();
+        }
+        for (int i = 0; i < expressions.length; i++) {
+            Schedule schedule = Schedule.create(expressions[i]);
+            Assert.assertEquals(expressions[i], schedule.countOccurrences(start + 1000, end, zone), counts[i]);
+        }
+    }
+
+    @Test
+    public void testCancel() throws InvalidExpressionException {
+        AtomicLong clock = new AtomicLong(START);
+        AtomicInteger runs = new AtomicInteger();
+        CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, Runnable::run, clock::get, false);
+        CronScheduler.Registration registration = scheduler.schedule(Schedule.create("* * * * * *"),
+                runs::incrementAndGet);
+        CronScheduler.Registration daily = scheduler.schedule(Schedule.create("0 0 * * *"), runs::incrementAndGet);
+        for (int i = 1; i <= 5; i++) {
+            clock.set(START + i * 1000);
+            scheduler.tick();
+        }
+        Assert.assertEquals(5, runs.get());
+        registration.cancel();
+        daily.cancel();
+        Assert.assertTrue(registration.isCancelled());
+        for (int i = 6; i <= 100000; i += 100) {
+            clock.set(START + i * 1000L);
+            scheduler.tick();
+        }
+        Assert.assertEquals(5, runs.get());
+    }
+
+    @Test
+    public void testMissedOccurrencesRunOnce() throws InvalidExpressionException {
+        AtomicLong clock = new AtomicLong(START);
+        AtomicInteger runs = new AtomicInteger();
+        CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, Runnable::run, clock::get, false);
+        scheduler.schedule(Schedule.create("* * * * * *"), runs::incrementAndGet);
+        clock.set(START + 3 * 86400000L);
+        scheduler.tick();
+        Assert.assertEquals(1, runs.get());
+        clock.addAndGet(1000);
+        scheduler.tick();
+        Assert.assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testFailingExecutor() throws InvalidExpressionException {
+        AtomicLong clock = new AtomicLong(START);
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger runs = new AtomicInteger();
+        Executor executor = task -> {
+            if (failures.getAndIncrement() == 0) {
+                throw new IllegalStateException("executor failure");
+            }
+            task.run();
+        };
+        List<Throwable> reported = new ArrayList<>();
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler handler = thread.getUncaughtExceptionHandler();
+        thread.setUncaughtExceptionHandler((failed, ex) -> reported.add(ex));
+        try {
+            CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, executor, clock::get, false);
+            // both tasks are due in the same slot, the second one is unlinked
+            // with the first one when the executor fails
+            scheduler.schedule(Schedule.create("* * * * * *"), runs::incrementAndGet);
+            scheduler.schedule(Schedule.create("* * * * * *"), runs::incrementAndGet);
+            for (int i = 1; i <= 5; i++) {
+                clock.set(START + i * 1000);
+                scheduler.tick();
+            }
+        } finally {
+            thread.setUncaughtExceptionHandler(handler);
+        }
+        Assert.assertEquals(9, runs.get());
+        Assert.assertEquals(1, reported.size());
+        Assert.assertTrue(reported.get(0) instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testTimerThread() throws InvalidExpressionException, InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        try (CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, Runnable::run)) {
+            scheduler.schedule(Schedule.create("* * * * * *"), latch::countDown);
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testConcurrencyLimit() throws InvalidExpressionException, InterruptedException {
+        AtomicLong clock = new AtomicLong(START);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, executor, clock::get, false);
+            Schedule hourly = Schedule.create("0 * * * *");
+            scheduler.setConcurrencyLimit(hourly, 3);
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            AtomicInteger otherRuns = new AtomicInteger();
+            CountDownLatch started = new CountDownLatch(3);
+            CountDownLatch completed = new CountDownLatch(50);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 50; i++) {
+                scheduler.schedule(Schedule.create("0 * * * *"), () -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    completed.countDown();
+                });
+            }
+            CountDownLatch other = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                scheduler.schedule(Schedule.create("0 * * * * *"), () -> {
+                    otherRuns.incrementAndGet();
+                    other.countDown();
+                });
+            }
+            clock.set(START + 3600000);
+            scheduler.tick();
+            // tasks of other schedules are not limited
+            Assert.assertTrue(other.await(5, TimeUnit.SECONDS));
+            // the limited tasks block until released, runs over the limit would
+            // show in maxRunning once they are released
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(3, running.get());
+            release.countDown();
+            Assert.assertTrue(completed.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(3, maxRunning.get());
+            Assert.assertEquals(10, otherRuns.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testChangeConcurrencyLimit() throws InvalidExpressionException {
+        AtomicLong clock = new AtomicLong(START);
+        List<Runnable> submitted = new ArrayList<>();
+        CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, submitted::add, clock::get, false);
+        Schedule hourly = Schedule.create("0 * * * *");
+        scheduler.setConcurrencyLimit(hourly, 2);
+        for (int i = 0; i < 6; i++) {
+            scheduler.schedule(hourly, () -> {
+            });
+        }
+        clock.set(START + 3600000);
+        scheduler.tick();
+        Assert.assertEquals(2, submitted.size());
+        // the running tasks are still counted by the same limit
+        scheduler.setConcurrencyLimit(hourly, 2);
+        Assert.assertEquals(2, submitted.size());
+        scheduler.setConcurrencyLimit(hourly, 3);
+        Assert.assertEquals(3, submitted.size());
+        submitted.get(0).run();
+        Assert.assertEquals(4, submitted.size());
+        // waiting runs start when the limit is removed
+        scheduler.removeConcurrencyLimit(hourly);
+        Assert.assertEquals(6, submitted.size());
+    }
+
+    @Test
+    public void testVirtualThreads() throws InvalidExpressionException, InterruptedException {
+        if (!CronScheduler.isVirtualThreadSupported()) {
+            try {
+                CronScheduler.newVirtualThreadExecutor();
+                Assert.fail();
+            } catch (UnsupportedOperationException ex) {
+                // expected before Java 21
+            }
+            Assume.assumeTrue("virtual threads are not supported", false);
+        }
+        AtomicLong clock = new AtomicLong(START);
+        ExecutorService executor = CronScheduler.newVirtualThreadExecutor();
+        try {
+            CronScheduler scheduler = new CronScheduler(ZoneOffset.UTC, executor, clock::get, false);
+            CountDownLatch latch = new CountDownLatch(10000);
+            for (int i = 0; i < 10000; i++) {
+                scheduler.schedule(Schedule.create("0 * * * *"), () -> {
+                    try {
+                        Thread.sleep(100);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    latch.countDown();
+                });
+            }
+            clock.set(START + 3600000);
+            scheduler.tick();
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.asahaf.javacron;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CrontabLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLoad() throws IOException, InvalidExpressionException {
+        String crontab = "# backups\n" + "\n" + "0 2 * * * /usr/bin/backup --full\n"
+                + "  */5 * * * *   echo  hello  \n" + "\t# indented comment\n" + "0 0 30 2 * never\n"
+                + "0 12 * * mon-fri lunch\n" + "0 61 * * * bad minute\n" + "0 0 * * *\n";
+        CrontabLoader.Result result = new CrontabLoader().load(new StringReader(crontab));
+
+        Assert.assertEquals(3, result.getEntries().size());
+        Assert.assertEquals(result.getEntries(), result.getAdded());
+        Assert.assertTrue(result.getRemoved().isEmpty());
+        CrontabLoader.Entry backup = result.getEntries().get(0);
+        Assert.assertEquals("0 2 * * * /usr/bin/backup --full", backup.getLine());
+        Assert.assertEquals(Schedule.create("0 2 * * *"), backup.getSchedule());
+        Assert.assertEquals("/usr/bin/backup --full", backup.getCommand());
+        Assert.assertEquals("echo  hello", result.getEntries().get(1).getCommand());
+        Assert.assertEquals(Schedule.create("*/5 * * * *"), result.getEntries().get(1).getSchedule());
+        Assert.assertEquals("lunch", result.getEntries().get(2).getCommand());
+
+        List<CrontabLoader.LineError> errors = result.getErrors();
+        Assert.assertEquals(3, errors.size());
+        Assert.assertEquals(6, errors.get(0).getLineNumber());
+        Assert.assertEquals(-1, errors.get(0).getException().getErrorOffset());
+        Assert.assertEquals(8, errors.get(1).getLineNumber());
+        Assert.assertEquals("0 61 * * * bad minute", errors.get(1).getLine());
+        Assert.assertEquals(2, errors.get(1).getException().getErrorOffset());
+        Assert.assertEquals(9, errors.get(2).getLineNumber());
+        Assert.assertEquals("line 9: crontab line should have 5 fields followed by a command",
+                errors.get(2).toString());
+    }
+
+    @Test
+    public void testSixFields() throws IOException, InvalidExpressionException {
+        CrontabLoader loader = new CrontabLoader(6, Runnable::run);
+        CrontabLoader.Result result = loader.load(new StringReader("*/10 * * * * * tick\n0 0 * * * tock\n"));
+        Assert.assertEquals(1, result.getEntries().size());
+        Assert.assertEquals(Schedule.create("*/10 * * * * *"), result.getEntries().get(0).getSchedule());
+        Assert.assertEquals("tick", result.getEntries().get(0).getCommand());
+        Assert.assertEquals(2, result.getErrors().get(0).getLineNumber());
+    }
+
+    @Test
+    public void testReload() throws IOException {
+        Path file = this.folder.newFile("tenants.cron").toPath();
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            lines.add((i % 60) + " " + (i % 24) + " * * * job-" + i);
+        }
+        lines.add("0 0 * * * duplicate");
+        lines.add("0 0 * * * duplicate");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        CrontabLoader loader = new CrontabLoader();
+        CrontabLoader.Result first = loader.load(file);
+        Assert.assertEquals(3002, first.getEntries().size());
+        Assert.assertEquals(3002, first.getAdded().size());
+        for (int i = 0; i < 3000; i++) {
+            Assert.assertEquals("job-" + i, first.getEntries().get(i).getCommand());
+        }
+
+        // change a line, remove a line and a duplicate, and add a line at the top
+        lines.set(1500, "*/5 * * * * job-1500");
+        lines.remove(2000);
+        lines.remove(lines.size() - 1);
+        lines.add(0, "30 1 * * * job-new");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        CrontabLoader.Result second = loader.load(file);
+        Assert.assertEquals(3001, second.getEntries().size());
+        Assert.assertEquals(2, second.getAdded().size());
+        Assert.assertEquals("30 1 * * * job-new", second.getAdded().get(0).getLine());
+        Assert.assertEquals("*/5 * * * * job-1500", second.getAdded().get(1).getLine());
+        Assert.assertEquals(3, second.getRemoved().size());
+        List<String> removed = new ArrayList<>();
+        for (CrontabLoader.Entry entry : second.getRemoved()) {
+            removed.add(entry.getLine());
+        }
+        Assert.assertTrue(removed.contains("0 12 * * * job-1500"));
+        Assert.assertTrue(removed.contains("20 8 * * * job-2000"));
+        Assert.assertTrue(removed.contains("0 0 * * * duplicate"));
+        // unchanged lines keep their entries
+        Assert.assertSame(first.getEntries().get(0), second.getEntries().get(1));
+        Assert.assertSame(first.getEntries().get(2999), second.getEntries().get(2999));
+        Assert.assertTrue(second.getErrors().isEmpty());
+
+        CrontabLoader.Result third = loader.load(file);
+        Assert.assertTrue(third.getAdded().isEmpty());
+        Assert.assertTrue(third.getRemoved().isEmpty());
+        Assert.assertEquals(second.getEntries(), third.getEntries());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumberOfFields() {
+        new CrontabLoader(7, Runnable::run);
+    }
+}
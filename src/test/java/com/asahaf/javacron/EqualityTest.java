@@ -16,11 +16,16 @@ public class EqualityTest {
     public static Collection<?> getTestCase() {
         return Arrays.asList(new Object[][] {
 
-                { "* * * * *", "* * * * *", true }, { "0 * * * * *", "* * * * *", true },
+                { "* * * * *", "* * * * *", true }, { "0 * * * * *", "* * * * *", false },
                 { "0 0 0 1 1 0", "0 0 0 1 1 0", true }, { "0 0 0 1 1 0", "0 0 0 1 1 0", true },
                 { "0,20,40 0 0 1 1 0", "*/20 0 0 1 1 0", true }, { "0 0,20,40 0 1 1 0", "0 */20 0 1 1 0", true },
-                { "0 0 */10 1 1 0", "0 0 0,10,20 1 1 0", true }, { "0 0 0 */20 1 0", "0 0 0 1,21 1 0", true },
-                { "0 0 0 1 1,6,11 0", "0 0 0 1 */5 0", true }, { "0 0 0 1 1 0,2,4,6", "0 0 0 1 1 */2", true },
+                { "0 0 */10 1 1 0", "0 0 0,10,20 1 1 0", true }, { "0 0 0 */20 1 0", "0 0 0 1,21 1 0", false },
+                { "0 0 0 1 1,6,11 0", "0 0 0 1 */5 0", true }, { "0 0 0 1 1 0,2,4,6", "0 0 0 1 1 */2", false },
+                { "0 0 0 1 1 0,2,4,6", "0 0 0 1 1 0/2", true }, { "0 0 0 */20 1 0", "0 0 0 1,21 1 */7", true },
+                { "0 0 1-31 * 1", "0 0 * * *", true }, { "0 0 1 * 0-6", "0 0 * * *", true },
+                { "0 0 L * 5", "0 0 L * *", true }, { "0 0 1,30 2 *", "0 0 1 2 *", true },
+                { "0 0 1-29 2 *", "0 0 * 2 *", true }, { "0 0 30 2 1", "0 0 * 2 1", true },
+                { "0 0 L * *", "0 0 28-31 * *", false }, { "0 0 * * 5L", "0 0 * * 5", false },
                 { "0 0 0 1 1 0", "1 0 0 1 1 0", false }, { "0 0 0 1 1 0", "0 1 0 1 1 0", false },
                 { "0 0 0 1 1 0", "0 0 1 1 1 0", false }, { "0 0 0 1 1 0", "0 0 0 2 1 0", false },
                 { "0 0 0 1 1 0", "0 0 0 1 2 0", false }, { "0 0 0 1 1 0", "0 0 0 1 1 1", false }
@@ -44,6 +49,9 @@ public class EqualityTest {
             Schedule first = Schedule.create(this.first);
             Schedule second = Schedule.create(this.second);
             Assert.assertEquals(this.expectedResult, first.equals(second));
+            if (this.expectedResult) {
+                Assert.assertEquals(first.hashCode(), second.hashCode());
+            }
 
         } catch (Exception exp) {
             Assert.fail(exp.toString());
@@ -0,0 +1,120 @@
+package com.asahaf.javacron;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrecomputedScheduleTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Test
+    public void testSameAsSchedule() throws InvalidExpressionException {
+        String[] expressions = { "*/5 * * * * *", "30 2 * * *", "0 0 0 L * *", "0 15,45 1-3 * * *", "0 0 29 2 *" };
+        long start = Instant.parse("2019-03-09T12:00:00Z").toEpochMilli();
+        Random random = new Random(3);
+        for (String expression : expressions) {
+            Schedule schedule = Schedule.create(expression);
+            PrecomputedSchedule precomputed = new PrecomputedSchedule(schedule, NEW_YORK, Duration.ofDays(2),
+                    start, Runnable::run);
+            for (int i = 0; i < 2000; i++) {
+                // mostly in the window, partly before and after it
+                long base = start - 86400000L + (long) (random.nextDouble() * 4 * 86400000L);
+                Assert.assertEquals(expression + " " + base, schedule.nextEpochMillis(base, NEW_YORK),
+                        precomputed.nextEpochMillis(base));
+                long second = Math.floorDiv(base, 1000L) / 5 * 5;
+                Assert.assertEquals(expression + " " + second, schedule.matches(second, NEW_YORK),
+                        precomputed.matches(second));
+                long to = base + (long) (random.nextDouble() * 86400000L);
+                Assert.assertEquals(expression + " " + base + " " + to,
+                        schedule.countOccurrences(base, to, NEW_YORK), precomputed.countOccurrences(base, to));
+            }
+        }
+    }
+
+    @Test
+    public void testRefill() throws InvalidExpressionException {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        long start = Instant.parse("2019-05-01T00:00:00Z").toEpochMilli();
+        Schedule schedule = Schedule.create("0 * * * *");
+        PrecomputedSchedule precomputed = new PrecomputedSchedule(schedule, NEW_YORK, Duration.ofHours(10), start,
+                tasks::add);
+        Assert.assertEquals(start / 1000, precomputed.windowStart());
+
+        precomputed.nextEpochMillis(start + Duration.ofHours(4).toMillis());
+        Assert.assertTrue(tasks.isEmpty());
+
+        long base = start + Duration.ofHours(6).toMillis() + 1;
+        Assert.assertEquals(start + Duration.ofHours(7).toMillis(), precomputed.nextEpochMillis(base));
+        Assert.assertEquals(1, tasks.size());
+        // a refill is already pending
+        precomputed.nextEpochMillis(base + 1000);
+        Assert.assertEquals(1, tasks.size());
+
+        tasks.poll().run();
+        Assert.assertEquals(Math.floorDiv(base, 1000L), precomputed.windowStart());
+        long later = start + Duration.ofHours(15).toMillis();
+        Assert.assertEquals(start + Duration.ofHours(16).toMillis(), precomputed.nextEpochMillis(later));
+        Assert.assertEquals(9, precomputed.countOccurrences(base, later + 3600000L));
+    }
+
+    @Test
+    public void testFarQueryDoesNotMoveWindow() throws InvalidExpressionException {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        long now = System.currentTimeMillis();
+        Schedule schedule = Schedule.create("* * * * *");
+        PrecomputedSchedule precomputed = new PrecomputedSchedule(schedule, NEW_YORK, Duration.ofHours(10), now,
+                tasks::add);
+        long windowStart = precomputed.windowStart();
+
+        long farAhead = now + Duration.ofDays(7).toMillis();
+        Assert.assertEquals(schedule.nextEpochMillis(farAhead, NEW_YORK), precomputed.nextEpochMillis(farAhead));
+        Assert.assertFalse(precomputed.matches(Math.floorDiv(farAhead, 1000L) / 60 * 60 + 1));
+        Assert.assertTrue(tasks.isEmpty());
+
+        // the queries of the current time are still answered from the window
+        for (int i = 0; i < 10; i++) {
+            long base = now + i * 60000L;
+            Assert.assertEquals(schedule.nextEpochMillis(base, NEW_YORK), precomputed.nextEpochMillis(base));
+        }
+        Assert.assertTrue(tasks.isEmpty());
+        Assert.assertEquals(windowStart, precomputed.windowStart());
+    }
+
+    @Test
+    public void testStaleWindowRefillsFromCurrentTime() throws InvalidExpressionException {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        long start = System.currentTimeMillis() - Duration.ofDays(30).toMillis();
+        Schedule schedule = Schedule.create("* * * * *");
+        PrecomputedSchedule precomputed = new PrecomputedSchedule(schedule, NEW_YORK, Duration.ofHours(10), start,
+                tasks::add);
+
+        long farAhead = System.currentTimeMillis() + Duration.ofDays(7).toMillis();
+        precomputed.nextEpochMillis(farAhead);
+        Assert.assertEquals(1, tasks.size());
+        long before = Math.floorDiv(System.currentTimeMillis(), 1000L);
+        tasks.poll().run();
+        Assert.assertTrue(precomputed.windowStart() >= before - 1);
+        Assert.assertTrue(precomputed.windowStart() < Math.floorDiv(farAhead, 1000L) - 86400);
+    }
+
+    @Test
+    public void testPrecompute() throws InvalidExpressionException {
+        PrecomputedSchedule precomputed = Schedule.create("* * * * * *").precompute(Duration.ofMinutes(1),
+                NEW_YORK);
+        long now = System.currentTimeMillis();
+        Assert.assertEquals(Duration.ofMinutes(1), precomputed.getHorizon());
+        Assert.assertEquals((Math.floorDiv(now, 1000L) + 1) * 1000L, precomputed.nextEpochMillis(now));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHorizon() throws InvalidExpressionException {
+        Schedule.create("* * * * *").precompute(Duration.ofMillis(500), NEW_YORK);
+    }
+}
@@ -0,0 +1,96 @@
+package com.asahaf.javacron;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleBinaryTest {
+
+    private static final String[] EXPRESSIONS = { "* * * * * *", "*/5 * * * *", "0 0 29 2 *", "0 0 0 L * *",
+            "0 0 0 * * 5L", "0 0 12 1,15 * 1", "15,45 8-18 * * mon-fri", "0 0 1 jan,apr,jul,oct *",
+            "0 0,12 1 */2 *", "23 0-20/2 * * *", "59 59 23 31 12 6", "0 0 1-7 * 1" };
+
+    @Test
+    public void testRoundTrip() throws InvalidExpressionException {
+        ByteBuffer buffer = ByteBuffer.allocate(EXPRESSIONS.length * Schedule.BINARY_SIZE);
+        for (String expression : EXPRESSIONS) {
+            Schedule.create(expression).writeTo(buffer);
+        }
+        Assert.assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        ZoneId zone = ZoneId.of("America/New_York");
+        long base = Instant.parse("2019-03-10T06:59:59Z").toEpochMilli();
+        for (String expression : EXPRESSIONS) {
+            Schedule expected = Schedule.create(expression);
+            Schedule schedule = Schedule.readFrom(buffer);
+            Assert.assertEquals(expression, expected, schedule);
+            Assert.assertEquals(expression, expected.hashCode(), schedule.hashCode());
+            Assert.assertEquals(expression, expected.getNumberOfFields(), schedule.getNumberOfFields());
+            Assert.assertEquals(expression, expected.toCanonicalString(), schedule.getExpression());
+            Assert.assertEquals(expression, expected.fixedPeriod(), schedule.fixedPeriod());
+            long next = base;
+            for (int i = 0; i < 20; i++) {
+                long expectedNext = expected.nextEpochMillis(next, zone);
+                next = schedule.nextEpochMillis(next, zone);
+                Assert.assertEquals(expression, expectedNext, next);
+            }
+        }
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testFormat() throws InvalidExpressionException {
+        ByteBuffer buffer = ByteBuffer.allocate(Schedule.BINARY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        Schedule.create("30 2 1 2 5").writeTo(buffer);
+        Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+        byte[] expected = { 1, 0b10, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0x40, 0, 0, 0, 0x20, 0, 0, 0b100, 0, 0, 0,
+                1, 0, 0b10 };
+        Assert.assertArrayEquals(expected, buffer.array());
+
+        buffer.flip();
+        Assert.assertEquals(Schedule.create("30 2 1 2 5"), Schedule.readFrom(buffer));
+        Assert.assertEquals(ByteOrder.LITTLE_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void testUnsupportedVersion() throws InvalidExpressionException {
+        ByteBuffer buffer = ByteBuffer.allocate(Schedule.BINARY_SIZE);
+        Schedule.create("* * * * *").writeTo(buffer);
+        buffer.put(0, (byte) 2);
+        buffer.flip();
+        try {
+            Schedule.readFrom(buffer);
+            Assert.fail();
+        } catch (IllegalArgumentException ex) {
+            Assert.assertEquals("unsupported schedule format version: 2", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testInvalidFields() throws InvalidExpressionException {
+        int[][] corruptions = { { 1, 0x10 }, { 9, 0 }, { 9, 2 }, { 10, 0x10 }, { 18, (byte) 0x80 }, { 25, 0 },
+                { 26, 0x10 } };
+        for (int[] corruption : corruptions) {
+            ByteBuffer buffer = ByteBuffer.allocate(Schedule.BINARY_SIZE);
+            Schedule.create("0 0 1 * *").writeTo(buffer);
+            buffer.put(corruption[0], (byte) corruption[1]);
+            buffer.flip();
+            try {
+                Schedule.readFrom(buffer);
+                Assert.fail("offset " + corruption[0]);
+            } catch (IllegalArgumentException ex) {
+                Assert.assertEquals("invalid schedule fields", ex.getMessage());
+            }
+        }
+    }
+
+    @Test(expected = BufferUnderflowException.class)
+    public void testUnderflow() {
+        Schedule.readFrom(ByteBuffer.allocate(Schedule.BINARY_SIZE - 1));
+    }
+}
@@ -0,0 +1,79 @@
+package com.asahaf.javacron;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleCacheTest {
+
+    @Test
+    public void testSharedInstances() throws InvalidExpressionException {
+        ScheduleCache cache = new ScheduleCache(10);
+        Schedule schedule = cache.create("*/5 * * * *");
+        Assert.assertSame(schedule, cache.create("*/5 * * * *"));
+        Assert.assertSame(schedule, cache.create("  */5   *\t* * *  "));
+        Assert.assertSame(schedule, cache.create("0,5,10,15,20,25,30,35,40,45,50,55 * * * *"));
+        Assert.assertSame(cache.create("0 0 * JAN MON"), cache.create("0 0 * jan mon"));
+        Assert.assertEquals(3, cache.hitCount());
+        Assert.assertEquals(3, cache.missCount());
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testDistinctSchedules() throws InvalidExpressionException {
+        ScheduleCache cache = new ScheduleCache(10);
+        Assert.assertNotSame(cache.create("0 * * * * *"), cache.create("* * * * *"));
+        Assert.assertNotSame(cache.create("0 0 1 * *"), cache.create("0 0 1 * 1"));
+        Assert.assertNotSame(cache.create("0 0 L * *"), cache.create("0 0 28-31 * *"));
+    }
+
+    @Test
+    public void testEviction() throws InvalidExpressionException {
+        ScheduleCache cache = new ScheduleCache(2);
+        Schedule first = cache.create("1 * * * *");
+        cache.create("2 * * * *");
+        cache.create("1 * * * *");
+        cache.create("3 * * * *");
+        Assert.assertEquals(1, cache.evictionCount());
+        Assert.assertEquals(2, cache.size());
+        // the least recently used expression is evicted
+        Assert.assertSame(first, cache.create("1 * * * *"));
+        cache.create("2 * * * *");
+        Assert.assertEquals(2, cache.hitCount());
+        Assert.assertEquals(4, cache.missCount());
+    }
+
+    @Test(expected = InvalidExpressionException.class)
+    public void testInvalidExpression() throws InvalidExpressionException {
+        ScheduleCache cache = new ScheduleCache(2);
+        try {
+            cache.create("61 * * * *");
+        } finally {
+            Assert.assertEquals(0, cache.size());
+        }
+    }
+
+    @Test
+    public void testConcurrentCreate() throws Exception {
+        ScheduleCache cache = new ScheduleCache(100);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Schedule>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                String expression = (i % 2 == 0) ? "0 9 * * mon-fri" : "0   9 * * MON-FRI";
+                futures.add(executor.submit(() -> cache.create(expression)));
+            }
+            Schedule schedule = futures.get(0).get();
+            for (Future<Schedule> future : futures) {
+                Assert.assertSame(schedule, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.asahaf.javacron;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class ScheduleCanonicalStringTest {
+
+    @Parameterized.Parameters
+    public static Collection<?> getTestCase() {
+        return Arrays.asList(new Object[][] {
+
+                { "* * * * *", "* * * * *" }, { "* * * * * *", "* * * * * *" },
+                { "0 * * * * *", "0 * * * * *" }, { "0,15,30,45 0-23 1-31 JAN-DEC *", "*/15 * * * *" },
+                { "0 0 * * *", "0 0 * * *" }, { "5-59/5 * * * *", "5/5 * * * *" },
+                { "5-50/5 * * * *", "5-50/5 * * * *" }, { "1,2,3,4,10 * * * *", "1-4,10 * * * *" },
+                { "0,30 * * * *", "0,30 * * * *" }, { "0 9-17 * * mon-fri", "0 9-17 * * 1-5" },
+                { "0 0 1-31 * 1", "0 0 * * *" }, { "0 0 L * 5", "0 0 L * *" },
+                { "0 0 0 * * 5L", "0 0 0 * * 5L" }, { "0 0 * FEB 5l", "0 0 * 2 5L" },
+                { "0 0 1,15 * 1", "0 0 1,15 * 1" }, { "0 0 */2 * 1", "0 0 */2 * 1" },
+                { "0 0 1-31/2 * 1", "0 0 1/2 * 1" }, { "0 0 */10 * */2", "0 0 */10 * */2" },
+                { "0 0 1,30 2 *", "0 0 1 2 *" }, { "0 0 */2 2 *", "0 0 */2 2 *" },
+                { "0 0 */7,3 * 4", "0 0 */31,3,8,15,22,29 * 4" }, { "0 0 5 * */7,3", "0 0 5 * */7,3" },
+                { "0 0 30 2 1", "0 0 * 2 1" }, { "0 0 * * 0-6", "0 0 * * *" }, { "0 0 5 * 0-6", "0 0 * * *" }
+
+        });
+    }
+
+    private String expression;
+    private String canonicalString;
+
+    public ScheduleCanonicalStringTest(String expression, String canonicalString) {
+        this.expression = expression;
+        this.canonicalString = canonicalString;
+    }
+
+    @Test
+    public void testCanonicalString() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create(this.expression);
+        Assert.assertEquals(this.canonicalString, schedule.toCanonicalString());
+    }
+
+    @Test
+    public void testRoundTrip() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create(this.expression);
+        Schedule canonical = Schedule.create(schedule.toCanonicalString());
+        Assert.assertEquals(schedule, canonical);
+        Assert.assertEquals(schedule.hashCode(), canonical.hashCode());
+        Assert.assertEquals(schedule.toCanonicalString(), canonical.toCanonicalString());
+    }
+
+    @Test
+    public void testRandomRoundTrip() throws InvalidExpressionException {
+        Random random = new Random(this.expression.hashCode());
+        for (int i = 0; i < 100; i++) {
+            String days = randomList(random, 1, 31);
+            String daysOfWeek = randomList(random, 0, 6);
+            if (random.nextBoolean()) {
+                days = "*/" + (1 + random.nextInt(31)) + "," + days;
+            } else if (random.nextBoolean()) {
+                daysOfWeek = "*/" + (1 + random.nextInt(7)) + "," + daysOfWeek;
+            }
+            String expression = randomList(random, 0, 59) + " " + randomList(random, 0, 23) + " " + days + " "
+                    + randomList(random, 2, 12) + " " + daysOfWeek;
+            Schedule schedule = Schedule.create(expression);
+            Schedule canonical = Schedule.create(schedule.toCanonicalString());
+            Assert.assertEquals(expression, schedule, canonical);
+            Assert.assertEquals(expression, schedule.toCanonicalString(), canonical.toCanonicalString());
+        }
+    }
+
+    private static String randomList(Random random, int min, int max) {
+        StringBuilder builder = new StringBuilder();
+        int count = 1 + random.nextInt(max - min + 1);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(min + random.nextInt(max - min + 1));
+        }
+        return builder.toString();
+    }
+}
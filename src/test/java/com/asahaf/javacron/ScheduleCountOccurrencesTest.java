@@ -0,0 +1,68 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleCountOccurrencesTest {
+
+    @Test
+    public void testMatchesEnumeration() throws InvalidExpressionException {
+        Instant[][] windows = { { Instant.parse("2019-03-09T10:11:12Z"), Instant.parse("2019-03-12T00:00:00.5Z") },
+                { Instant.parse("2019-10-25T23:59:59Z"), Instant.parse("2019-11-05T00:00:01Z") },
+                { Instant.parse("2019-10-05T14:00:00Z"), Instant.parse("2019-10-05T17:00:00Z") },
+                { Instant.parse("2019-11-03T05:30:00Z"), Instant.parse("2019-11-03T06:30:00Z") },
+                { Instant.parse("2019-01-01T00:00:00Z"), Instant.parse("2019-01-01T00:00:00Z") } };
+        ScheduleFixtures.forEachScheduleAndZone((schedule, zone, description) -> {
+            for (Instant[] window : windows) {
+                long expected = schedule.occurrences(window[0], window[1], zone).count();
+                Assert.assertEquals(description + " " + window[0], expected,
+                        schedule.countOccurrences(window[0], window[1], zone));
+            }
+        });
+    }
+
+    @Test
+    public void testGapWindow() throws InvalidExpressionException {
+        // 2005-03-27 01:00 GMT London clocks were set forward to 02:00 BST, the
+        // four skipped runs happen in the hour after the gap
+        ZoneId london = ZoneId.of("Europe/London");
+        Schedule schedule = Schedule.create("*/15 1 * * *");
+        Assert.assertEquals(4, schedule.countOccurrences(Instant.parse("2005-03-27T00:00:00Z"),
+                Instant.parse("2005-03-27T02:00:00Z"), london));
+        Assert.assertEquals(2, schedule.countOccurrences(Instant.parse("2005-03-27T01:10:00Z"),
+                Instant.parse("2005-03-27T01:40:00Z"), london));
+    }
+
+    @Test
+    public void testOverlapWindow() throws InvalidExpressionException {
+        // 2019-11-03 02:00 EDT New York clocks were set back to 01:00 EST, the
+        // repeated runs happen once
+        ZoneId newYork = ZoneId.of("America/New_York");
+        Schedule schedule = Schedule.create("*/20 1 * * *");
+        Assert.assertEquals(3, schedule.countOccurrences(Instant.parse("2019-11-03T05:00:00Z"),
+                Instant.parse("2019-11-03T07:00:00Z"), newYork));
+        Assert.assertEquals(0, schedule.countOccurrences(Instant.parse("2019-11-03T06:00:00Z"),
+                Instant.parse("2019-11-03T07:00:00Z"), newYork));
+    }
+
+    @Test
+    public void testLongWindows() throws InvalidExpressionException {
+        Instant from = Instant.parse("2000-01-01T00:00:00Z");
+        Instant to = Instant.parse("2100-01-01T00:00:00Z");
+        Schedule schedule = Schedule.create("* * * * * *");
+        Assert.assertEquals(to.getEpochSecond() - from.getEpochSecond(),
+                schedule.countOccurrences(from, to, ZoneOffset.UTC));
+        // the repeated hour of each year happens once
+        Assert.assertEquals(to.getEpochSecond() - from.getEpochSecond() - 100 * 3600,
+                schedule.countOccurrences(from, to, ZoneId.of("Europe/Berlin")));
+        schedule = Schedule.create("0 0 0 29 2 *");
+        Assert.assertEquals(25, schedule.countOccurrences(from, to, ZoneOffset.UTC));
+        schedule = Schedule.create("0 0 * * *");
+        Assert.assertEquals(36525, schedule.countOccurrences(from.toEpochMilli(), to.toEpochMilli(),
+                ZoneId.of("America/New_York")));
+    }
+}
@@ -0,0 +1,62 @@
+package com.asahaf.javacron;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleCreateAllTest {
+
+    @Test
+    public void testCreateAll() throws InvalidExpressionException {
+        ParsedSchedules parsed = Schedule.createAll(Arrays.asList("*/5 * * * *", "0 0 30 2 *", "0,30 * * * *",
+                "*/5 * * * *", "0 9 * * mon-fri", "0-59/30 * * * *", "bad", "0 0 30 2 *"));
+
+        Assert.assertTrue(parsed.hasFailures());
+        Assert.assertEquals(Arrays.asList("*/5 * * * *", "0,30 * * * *", "0 9 * * mon-fri", "0-59/30 * * * *"),
+                new ArrayList<>(parsed.getSchedules().keySet()));
+        Assert.assertEquals(Schedule.create("0 9 * * 1-5"), parsed.get("0 9 * * mon-fri"));
+        Assert.assertSame(parsed.get("0,30 * * * *"), parsed.get("0-59/30 * * * *"));
+        Assert.assertNull(parsed.get("bad"));
+
+        Map<String, InvalidExpressionException> failures = parsed.getFailures();
+        Assert.assertEquals(Arrays.asList("0 0 30 2 *", "bad"), new ArrayList<>(failures.keySet()));
+        Assert.assertEquals(
+                "crontab expression should have 6 fields for (seconds resolution) or 5 fields for (minutes resolution)",
+                failures.get("bad").getMessage());
+    }
+
+    @Test
+    public void testCreateAllStream() {
+        ParsedSchedules parsed = Schedule.createAll(Stream.of("* * * * *", "* * * * *", "0 0 * * * *"));
+        Assert.assertFalse(parsed.hasFailures());
+        Assert.assertEquals(2, parsed.getSchedules().size());
+        Assert.assertEquals(6, parsed.get("0 0 * * * *").getNumberOfFields());
+    }
+
+    @Test
+    public void testSameAsCreate() {
+        Random random = new Random(5);
+        List<String> expressions = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            expressions.add(random.nextInt(62) + " " + random.nextInt(25) + " " + (1 + random.nextInt(31)) + " "
+                    + (1 + random.nextInt(12)) + " *");
+        }
+        ParsedSchedules parsed = Schedule.createAll(expressions);
+        for (String expression : expressions) {
+            try {
+                Assert.assertEquals(expression, Schedule.create(expression), parsed.get(expression));
+            } catch (InvalidExpressionException ex) {
+                Assert.assertEquals(expression, ex.getMessage(), parsed.getFailures().get(expression).getMessage());
+            }
+        }
+        Assert.assertEquals(new HashSet<>(expressions).size(),
+                parsed.getSchedules().size() + parsed.getFailures().size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.asahaf.javacron;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class ScheduleFixedPeriodTest {
+
+    private final String expression;
+    private final long period;
+
+    public ScheduleFixedPeriodTest(String expression, long period) {
+        this.expression = expression;
+        this.period = period;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> data() {
+        return Arrays.asList(new Object[][] {
+                { "* * * * * *", 1 },
+                { "*/10 * * * * *", 10 },
+                { "5-59/10 * * * * *", 10 },
+                { "0,30 * * * * *", 30 },
+                { "* * * * *", 60 },
+                { "*/5 * * * *", 300 },
+                { "3/15 * * * *", 900 },
+                { "0 */2 * * *", 7200 },
+                { "30 0 */2 * * *", 7200 },
+                { "15 1/3 * * *", 10800 },
+                { "0 0 * * *", 86400 },
+                { "0 0 1-31 * *", 86400 },
+                { "0 0 * 1-12 0-6", 86400 },
+                { "0 0 1-31 * 1", 86400 },
+                { "0 0 * * * *", 3600 },
+                { "0 0 0 * * *", 86400 },
+                { "*/7 * * * *", 0 },
+                { "*/10 */2 * * * *", 0 },
+                { "* 0 * * *", 0 },
+                { "0,10 * * * *", 0 },
+                { "0 9-17 * * *", 0 },
+                { "0 0 */2 * *", 0 },
+                { "0 0 * jan *", 0 },
+                { "0 0 * * 1-5", 0 },
+                { "0 0 L * *", 0 },
+                { "0 0 * * 5L", 0 },
+                { "0 0 1,15 * 1", 0 },
+        });
+    }
+
+    @Test
+    public void testFixedPeriod() throws InvalidExpressionException {
+        Optional<Duration> expected = this.period == 0 ? Optional.empty()
+                : Optional.of(Duration.ofSeconds(this.period));
+        Assert.assertEquals(expected, Schedule.create(this.expression).fixedPeriod());
+    }
+
+    @Test
+    public void testNextMatchesFields() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create(this.expression);
+        Random random = new Random(this.expression.hashCode());
+        ZoneId[] zones = { ZoneOffset.UTC, ZoneOffset.ofHoursMinutes(5, 30), ZoneOffset.ofHours(-11) };
+        for (ZoneId zone : zones) {
+            ZoneOffset offset = (ZoneOffset) zone;
+            for (int i = 0; i < 500; i++) {
+                long baseMillis = (random.nextLong() & ((1L << 42) - 1)) - (1L << 40);
+                LocalDateTime base = LocalDateTime.ofEpochSecond(Math.floorDiv(baseMillis, 1000L), 0, offset);
+                long expected = schedule.next(base).toEpochSecond(offset) * 1000L;
+                Assert.assertEquals(this.expression + " " + zone + " " + baseMillis, expected,
+                        schedule.nextEpochMillis(baseMillis, zone));
+            }
+        }
+    }
+}
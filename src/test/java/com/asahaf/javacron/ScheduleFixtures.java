@@ -0,0 +1,70 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Expressions, zones and time windows shared by the tests that compare an
+ * evaluation of schedules to a reference one, like {@code matches} to
+ * {@code nextEpochMillis}.
+ */
+final class ScheduleFixtures {
+
+    /**
+     * Expressions covering seconds and minutes resolutions, steps, times in
+     * daylight saving gaps and overlaps, the last day of the month, the last day
+     * of week of the month, days and days of week together, and leap days.
+     */
+    static final String[] EXPRESSIONS = { "* * * * * *", "*/7 * * * *", "0 30 1 * * *", "0 30 2 * * *",
+            "0 0 0 L * *", "0 0 * * 5L", "0 0 12 1,15 * 1", "0 15,45 1-3 * * *", "30 2 * * *", "*/20 * 2 * * *",
+            "0 0 0 29 2 *" };
+
+    /**
+     * Zones with a fixed offset, a fractional offset, one hour daylight saving
+     * transitions, and half hour transitions.
+     */
+    static final ZoneId[] ZONES = { ZoneOffset.UTC, ZoneOffset.ofHoursMinutes(5, 30),
+            ZoneId.of("America/New_York"), ZoneId.of("Australia/Lord_Howe") };
+
+    /**
+     * Windows of epoch seconds, each a start and a length, around the daylight
+     * saving transitions of the zones and the ends of months.
+     */
+    static final long[][] WINDOWS = { { epochSecond("2019-03-10T05:00:00Z"), 5 * 3600 },
+            { epochSecond("2019-11-03T04:00:00Z"), 4 * 3600 }, { epochSecond("2019-04-06T14:00:00Z"), 2 * 3600 },
+            { epochSecond("2019-10-05T14:00:00Z"), 2 * 3600 }, { epochSecond("2019-05-31T23:00:00Z"), 3 * 3600 },
+            { epochSecond("2019-02-28T22:00:00Z"), 6 * 3600 }, { epochSecond("2020-02-29T00:00:00Z"), 86400 } };
+
+    /**
+     * A check of a schedule in a zone.
+     */
+    interface ScheduleCheck {
+        /**
+         * @param schedule    the schedule to check.
+         * @param zone        the zone in which the schedule is evaluated.
+         * @param description the expression and the zone, for assertion messages.
+         */
+        void check(Schedule schedule, ZoneId zone, String description);
+    }
+
+    private ScheduleFixtures() {
+    }
+
+    /**
+     * Runs the check for the schedule of each of the {@link #EXPRESSIONS} in each
+     * of the {@link #ZONES}.
+     */
+    static void forEachScheduleAndZone(ScheduleCheck check) throws InvalidExpressionException {
+        for (String expression : EXPRESSIONS) {
+            Schedule schedule = Schedule.create(expression);
+            for (ZoneId zone : ZONES) {
+                check.check(schedule, zone, expression + " " + zone);
+            }
+        }
+    }
+
+    private static long epochSecond(String instant) {
+        return Instant.parse(instant).getEpochSecond();
+    }
+}
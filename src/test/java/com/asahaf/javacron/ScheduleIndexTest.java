@@ -0,0 +1,122 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleIndexTest {
+
+    private static final long START = Instant.parse("2019-01-01T00:00:00Z").toEpochMilli();
+
+    @Test
+    public void testPollDue() throws InvalidExpressionException {
+        ScheduleIndex<String> index = new ScheduleIndex<>(ZoneOffset.UTC, START);
+        index.add(Schedule.create("*/10 * * * * *"), "every 10 seconds");
+        index.add(Schedule.create("*/15 * * * * *"), "every 15 seconds");
+        index.add(Schedule.create("0 * * * *"), "hourly");
+
+        Assert.assertEquals(START + 10000, index.nextEpochMillis());
+        Assert.assertEquals(Collections.emptyList(), index.pollDue(START + 9999));
+        Assert.assertEquals(Arrays.asList("every 10 seconds"), index.pollDue(START + 10000));
+        Assert.assertEquals(Arrays.asList("every 15 seconds"), index.pollDue(START + 15000));
+        Assert.assertEquals(Arrays.asList("every 10 seconds"), index.pollDue(START + 20000));
+        Assert.assertEquals(Arrays.asList("every 10 seconds", "every 15 seconds"), index.pollDue(START + 30000));
+        // missed occurrences are reported once
+        List<String> due = index.pollDue(START + 3600000);
+        Collections.sort(due);
+        Assert.assertEquals(Arrays.asList("every 10 seconds", "every 15 seconds", "hourly"), due);
+        Assert.assertEquals(START + 3610000, index.nextEpochMillis());
+    }
+
+    @Test
+    public void testGroupsEqualSchedules() throws InvalidExpressionException {
+        ScheduleIndex<Integer> index = new ScheduleIndex<>(ZoneOffset.UTC, START);
+        index.add(Schedule.create("*/30 * * * *"), 1);
+        index.add(Schedule.create("0,30 * * * *"), 2);
+        index.add(Schedule.create("0 * * * *"), 3);
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals(2, index.scheduleCount());
+        Assert.assertEquals(Arrays.asList(1, 2, 3), index.pollDue(START + 3600000));
+
+        Assert.assertTrue(index.remove(Schedule.create("0/30 * * * *"), 1));
+        Assert.assertFalse(index.remove(Schedule.create("0/30 * * * *"), 1));
+        Assert.assertEquals(2, index.scheduleCount());
+        Assert.assertTrue(index.remove(Schedule.create("*/30 * * * *"), 2));
+        Assert.assertEquals(1, index.scheduleCount());
+        Assert.assertEquals(Arrays.asList(3), index.pollDue(START + 2 * 3600000));
+        Assert.assertTrue(index.remove(Schedule.create("0 * * * *"), 3));
+        Assert.assertTrue(index.isEmpty());
+        Assert.assertEquals(Long.MAX_VALUE, index.nextEpochMillis());
+    }
+
+    @Test
+    public void testManyValuesOnOneSchedule() throws InvalidExpressionException {
+        ScheduleIndex<Integer> index = new ScheduleIndex<>(ZoneOffset.UTC, START);
+        Schedule hourly = Schedule.create("0 * * * *");
+        for (int i = 0; i < 100000; i++) {
+            index.add(hourly, i);
+        }
+        index.add(hourly, 5);
+        Assert.assertEquals(100001, index.size());
+        for (int i = 0; i < 100000; i += 2) {
+            Assert.assertTrue(index.remove(hourly, i));
+        }
+        Assert.assertEquals(50001, index.size());
+        List<Integer> due = index.pollDue(START + 3600000);
+        Assert.assertEquals(50001, due.size());
+        Assert.assertEquals(Arrays.asList(1, 3, 5, 5, 7), due.subList(0, 5));
+        Assert.assertTrue(index.remove(hourly, 5));
+        Assert.assertTrue(index.remove(hourly, 5));
+        Assert.assertFalse(index.remove(hourly, 5));
+        for (int i = 1; i < 100000; i += 2) {
+            index.remove(hourly, i);
+        }
+        Assert.assertTrue(index.isEmpty());
+        Assert.assertEquals(0, index.scheduleCount());
+    }
+
+    @Test
+    public void testRandomSchedules() throws InvalidExpressionException {
+        ZoneId zone = ZoneId.of("America/New_York");
+        Random random = new Random(42);
+        ScheduleIndex<Integer> index = new ScheduleIndex<>(zone, START);
+        Map<Integer, Schedule> schedules = new HashMap<>();
+        Map<Integer, Long> nextTimes = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            Schedule schedule = Schedule.create(random.nextInt(60) + " */" + (1 + random.nextInt(5)) + " * * *");
+            schedules.put(i, schedule);
+            nextTimes.put(i, schedule.nextEpochMillis(START, zone));
+            index.add(schedule, i);
+        }
+        for (int i = 0; i < 500; i += 3) {
+            Assert.assertTrue(index.remove(schedules.get(i), i));
+            nextTimes.remove(i);
+        }
+        long now = START;
+        for (int step = 0; step < 200; step++) {
+            now += random.nextInt(1200) * 1000L;
+            List<Integer> expected = new ArrayList<>();
+            for (Map.Entry<Integer, Long> entry : nextTimes.entrySet()) {
+                if (entry.getValue() <= now) {
+                    expected.add(entry.getKey());
+                    entry.setValue(schedules.get(entry.getKey()).nextEpochMillis(now, zone));
+                }
+            }
+            List<Integer> due = index.pollDue(now);
+            Collections.sort(expected);
+            Collections.sort(due);
+            Assert.assertEquals(expected, due);
+            Assert.assertEquals(Collections.min(nextTimes.values()).longValue(), index.nextEpochMillis());
+        }
+    }
+}
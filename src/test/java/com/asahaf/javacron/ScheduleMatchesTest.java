@@ -0,0 +1,72 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleMatchesTest {
+
+    @Test
+    public void testMatchesOccurrences() throws InvalidExpressionException {
+        ScheduleFixtures.forEachScheduleAndZone((schedule, zone, description) -> {
+            for (long[] window : ScheduleFixtures.WINDOWS) {
+                // the occurrences are enumerated from before the window, so they
+                // don't depend on a search from each second of the window
+                long windowEnd = window[0] + window[1];
+                Set<Long> occurrences = new HashSet<>();
+                long millis = schedule.nextEpochMillis((window[0] - 1) * 1000, zone);
+                while (millis < windowEnd * 1000) {
+                    occurrences.add(millis / 1000);
+                    millis = schedule.nextEpochMillis(millis, zone);
+                }
+                for (long second = window[0]; second < windowEnd; second++) {
+                    if (schedule.matches(second, zone) != occurrences.contains(second)) {
+                        Assert.fail(description + " " + second);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testMatchesInGapWindow() throws InvalidExpressionException {
+        // 2005-03-27 01:00 GMT clocks were set forward to 02:00 BST
+        ZoneId london = ZoneId.of("Europe/London");
+        Schedule schedule = Schedule.create("7 1 * * *");
+        Assert.assertTrue(schedule.matches(Instant.parse("2005-03-27T01:07:00Z").getEpochSecond(), london));
+        Assert.assertFalse(schedule.matches(Instant.parse("2005-03-27T01:08:00Z").getEpochSecond(), london));
+        schedule = Schedule.create("*/15 1 * * *");
+        for (String occurrence : new String[] { "2005-03-27T01:00:00Z", "2005-03-27T01:15:00Z",
+                "2005-03-27T01:30:00Z", "2005-03-27T01:45:00Z" }) {
+            Assert.assertTrue(occurrence, schedule.matches(Instant.parse(occurrence).getEpochSecond(), london));
+        }
+        Assert.assertFalse(schedule.matches(Instant.parse("2005-03-27T02:00:00Z").getEpochSecond(), london));
+    }
+
+    @Test
+    public void testMatchesInOverlapWindow() throws InvalidExpressionException {
+        // 2019-11-03 02:00 EDT clocks were set back to 01:00 EST
+        ZoneId newYork = ZoneId.of("America/New_York");
+        Schedule schedule = Schedule.create("30 1 * * *");
+        Assert.assertTrue(schedule.matches(Instant.parse("2019-11-03T05:30:00Z").getEpochSecond(), newYork));
+        Assert.assertFalse(schedule.matches(Instant.parse("2019-11-03T06:30:00Z").getEpochSecond(), newYork));
+    }
+
+    @Test
+    public void testMatchesZonedDateTime() throws InvalidExpressionException {
+        ZoneId zone = ZoneId.of("Europe/Paris");
+        Schedule schedule = Schedule.create("0 0 9 * * 1-5");
+        Assert.assertTrue(schedule.matches(ZonedDateTime.of(2019, 1, 7, 9, 0, 0, 0, zone)));
+        Assert.assertFalse(schedule.matches(ZonedDateTime.of(2019, 1, 7, 9, 0, 0, 1, zone)));
+        Assert.assertFalse(schedule.matches(ZonedDateTime.of(2019, 1, 6, 9, 0, 0, 0, zone)));
+        Assert.assertFalse(schedule.matches(ZonedDateTime.of(2019, 1, 7, 9, 0, 1, 0, zone)));
+        Assert.assertFalse(
+                schedule.matches(ZonedDateTime.of(2019, 1, 7, 9, 0, 0, 0, zone).withZoneSameInstant(ZoneOffset.UTC)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleNextBatchTest {
+
+    @Test
+    public void testSortedBases() throws InvalidExpressionException {
+        long start = Instant.parse("2019-01-01T00:00:00Z").toEpochMilli();
+        Random random = new Random(7);
+        long[] bases = new long[20000];
+        long base = start;
+        for (int i = 0; i < bases.length; i++) {
+            // dense runs of bases mixed with jumps of up to a few days
+            base += random.nextInt(10) == 0 ? random.nextInt(3 * 86400000) : random.nextInt(5000);
+            bases[i] = base;
+        }
+        ScheduleFixtures.forEachScheduleAndZone((schedule, zone, description) -> {
+            long[] out = new long[bases.length];
+            schedule.nextBatch(bases, out, zone);
+            for (int i = 0; i < bases.length; i++) {
+                Assert.assertEquals(description + " " + bases[i], schedule.nextEpochMillis(bases[i], zone), out[i]);
+            }
+        });
+    }
+
+    @Test
+    public void testBasesInGapWindow() throws InvalidExpressionException {
+        // 2005-03-27 01:00 GMT London clocks were set forward to 02:00 BST
+        Schedule schedule = Schedule.create("*/15 1 * * *");
+        long[] bases = { millis("2005-03-27T00:30:00Z"), millis("2005-03-27T01:00:00Z"),
+                millis("2005-03-27T01:05:00Z"), millis("2005-03-27T01:44:59Z"), millis("2005-03-27T01:45:00Z") };
+        long[] out = new long[bases.length];
+        schedule.nextBatch(bases, out, ZoneId.of("Europe/London"));
+        Assert.assertArrayEquals(new long[] { millis("2005-03-27T01:00:00Z"), millis("2005-03-27T01:15:00Z"),
+                millis("2005-03-27T01:15:00Z"), millis("2005-03-27T01:45:00Z"), millis("2005-03-28T00:00:00Z") },
+                out);
+    }
+
+    @Test
+    public void testBasesInOverlapWindow() throws InvalidExpressionException {
+        // 2019-11-03 02:00 EDT New York clocks were set back to 01:00 EST
+        Schedule schedule = Schedule.create("*/20 1 * * *");
+        long[] bases = { millis("2019-11-03T05:30:00Z"), millis("2019-11-03T05:40:00Z"),
+                millis("2019-11-03T06:10:00Z"), millis("2019-11-03T06:50:00Z") };
+        long[] out = new long[bases.length];
+        schedule.nextBatch(bases, out, ZoneId.of("America/New_York"));
+        Assert.assertArrayEquals(new long[] { millis("2019-11-03T05:40:00Z"), millis("2019-11-04T06:00:00Z"),
+                millis("2019-11-04T06:00:00Z"), millis("2019-11-04T06:00:00Z") }, out);
+    }
+
+    @Test
+    public void testUnsortedBases() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 0 * * *");
+        long day = 86400000L;
+        long[] bases = { 10 * day + 5, 10 * day + 10, 3 * day, 3 * day + 1, 20 * day - 1, -day - 1 };
+        long[] out = new long[bases.length];
+        schedule.nextBatch(bases, out, ZoneOffset.UTC);
+        Assert.assertArrayEquals(new long[] { 11 * day, 11 * day, 4 * day, 4 * day, 20 * day, -day }, out);
+    }
+
+    @Test
+    public void testInPlace() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("*/10 * * * * *");
+        long[] bases = { 0, 1, 9999, 10000, 10001 };
+        schedule.nextBatch(bases, bases, ZoneOffset.UTC);
+        Assert.assertEquals("[10000, 10000, 10000, 20000, 20000]", Arrays.toString(bases));
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortOutput() throws InvalidExpressionException {
+        Schedule.create("* * * * *").nextBatch(new long[2], new long[1], ZoneOffset.UTC);
+    }
+}
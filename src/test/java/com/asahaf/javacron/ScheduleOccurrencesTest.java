@@ -0,0 +1,82 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleOccurrencesTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static List<Instant> enumerate(Schedule schedule, Instant from, Instant to, ZoneId zone) {
+        List<Instant> instants = new ArrayList<Instant>();
+        long next = schedule.nextEpochMillis(from.toEpochMilli() - 1, zone);
+        while (next < to.toEpochMilli()) {
+            instants.add(Instant.ofEpochMilli(next));
+            next = schedule.nextEpochMillis(next, zone);
+        }
+        return instants;
+    }
+
+    @Test
+    public void testWindowBounds() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 * * * *");
+        List<Instant> instants = schedule.occurrences(Instant.parse("2019-01-01T00:00:00Z"),
+                Instant.parse("2019-01-01T03:00:00Z"), ZoneOffset.UTC).collect(Collectors.toList());
+        Assert.assertEquals(3, instants.size());
+        Assert.assertEquals(Instant.parse("2019-01-01T00:00:00Z"), instants.get(0));
+        Assert.assertEquals(Instant.parse("2019-01-01T02:00:00Z"), instants.get(2));
+
+        instants = schedule.occurrences(Instant.parse("2019-01-01T00:00:00.001Z"),
+                Instant.parse("2019-01-01T03:00:00.001Z"), ZoneOffset.UTC).collect(Collectors.toList());
+        Assert.assertEquals(3, instants.size());
+        Assert.assertEquals(Instant.parse("2019-01-01T01:00:00Z"), instants.get(0));
+        Assert.assertEquals(Instant.parse("2019-01-01T03:00:00Z"), instants.get(2));
+
+        Assert.assertEquals(0, schedule.occurrences(Instant.parse("2019-01-01T03:00:00Z"),
+                Instant.parse("2019-01-01T00:00:00Z"), ZoneOffset.UTC).count());
+        Assert.assertEquals(0, schedule.occurrencesEpochMillis(0L, 0L, ZoneOffset.UTC).count());
+    }
+
+    @Test
+    public void testMatchesNext() throws InvalidExpressionException {
+        Instant from = Instant.parse("2019-10-25T10:11:12Z");
+        Instant to = Instant.parse("2019-11-10T00:00:00Z");
+        for (String expression : new String[] { "*/7 * * * *", "0 0 0 L * *", "0 30 1 * * *", "0 0 * * 5L" }) {
+            Schedule schedule = Schedule.create(expression);
+            List<Instant> expected = enumerate(schedule, from, to, NEW_YORK);
+            Assert.assertEquals(expected, schedule.occurrences(from, to, NEW_YORK).collect(Collectors.toList()));
+            Assert.assertEquals(expected, schedule.occurrencesEpochMillis(from.toEpochMilli(), to.toEpochMilli(),
+                    NEW_YORK).mapToObj(Instant::ofEpochMilli).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testParallel() throws InvalidExpressionException {
+        Instant from = Instant.parse("2019-10-01T00:00:00Z");
+        Instant to = Instant.parse("2019-12-01T00:00:00Z");
+        Schedule schedule = Schedule.create("*/10 * * * * *");
+        List<Instant> expected = enumerate(schedule, from, to, NEW_YORK);
+        List<Instant> result = schedule.occurrences(from, to, NEW_YORK).parallel().collect(Collectors.toList());
+        Assert.assertEquals(expected, result);
+        Assert.assertEquals(expected.size(),
+                schedule.occurrencesEpochMillis(from.toEpochMilli(), to.toEpochMilli(), NEW_YORK).parallel().count());
+    }
+
+    @Test
+    public void testLazyIterator() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("* * * * * *");
+        Iterator<Instant> iterator = schedule.occurrenceIterator(Instant.parse("2019-01-01T00:00:00Z"), Instant.MAX,
+                ZoneOffset.UTC);
+        Assert.assertEquals(Instant.parse("2019-01-01T00:00:00Z"), iterator.next());
+        Assert.assertEquals(Instant.parse("2019-01-01T00:00:01Z"), iterator.next());
+        Assert.assertTrue(iterator.hasNext());
+    }
+}
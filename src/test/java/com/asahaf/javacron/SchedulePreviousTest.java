@@ -0,0 +1,88 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+@RunWith(Parameterized.class)
+public class SchedulePreviousTest {
+
+    @Parameterized.Parameters
+    public static Collection<?> getTestCases() {
+        return Arrays.asList(new Object[][] {
+
+                { "2019-01-01T00:00:00", "* * * * * *", "2018-12-31T23:59:59" },
+                { "2019-01-01T00:00:00", "* * * * *", "2018-12-31T23:59:00" },
+                { "2019-01-01T00:00:30", "* * * * *", "2019-01-01T00:00:00" },
+                { "2019-01-01T04:04:02", "0 0 1,5,23 * * *", "2019-01-01T01:00:00" },
+                { "2019-01-01T00:30:00", "0 0 1,5,23 * * *", "2018-12-31T23:00:00" },
+                { "2019-01-01T00:00:00", "*/20 */5 * * * *", "2018-12-31T23:55:40" },
+                { "2019-03-01T00:00:00", "0 0 0 29 2 *", "2016-02-29T00:00:00" },
+                { "2020-03-01T00:00:00", "0 0 0 29 2 *", "2020-02-29T00:00:00" },
+                { "2104-02-01T00:00:00", "0 0 0 29 2 *", "2096-02-29T00:00:00" },
+                { "2019-03-15T00:00:00", "0 0 0 L * *", "2019-02-28T00:00:00" },
+                { "2019-03-31T12:00:00", "0 0 0 L * *", "2019-03-31T00:00:00" },
+                { "2019-02-15T00:00:00", "0 0 0 * * 5L", "2019-01-25T00:00:00" },
+                { "2019-03-01T00:00:00", "0 0 0 * * 5L", "2019-02-22T00:00:00" },
+                { "2019-01-10T00:00:00", "0 0 0 13 * 5", "2019-01-04T00:00:00" },
+                { "2019-01-10T00:00:00", "0 0 0 * * 5", "2019-01-04T00:00:00" },
+                { "2019-01-17T00:00:00", "0 0 0 */7 * 4", "2018-11-29T00:00:00" },
+                { "2019-01-17T00:00:00", "0 0 0 1,15 * 4", "2019-01-15T00:00:00" },
+                { "2019-01-15T00:00:00", "0 0 0 1,15 * 4", "2019-01-10T00:00:00" },
+                { "2019-07-10T00:00:00", "0 0 31 * *", "2019-05-31T00:00:00" },
+                { "2019-07-10T00:00:00", "0 0 1 jan *", "2019-01-01T00:00:00" },
+                { "2019-01-01T00:00:00", "59 59 23 31 12 *", "2018-12-31T23:59:59" },
+                // in and after the daylight saving gaps and overlaps of the zones
+                { "2019-03-10T03:30:00", "*/15 2 * * *", "2019-03-10T02:45:00" },
+                { "2019-03-10T03:20:00", "10,40 2-3 * * *", "2019-03-10T03:10:00" },
+                { "2019-10-06T02:40:00", "*/20 2 * * *", "2019-10-06T02:20:00" },
+                { "2019-10-06T03:00:00", "*/20 2 * * *", "2019-10-06T02:40:00" },
+                { "2019-11-03T01:30:00", "*/20 1 * * *", "2019-11-03T01:20:00" },
+                { "2019-11-03T02:00:00", "*/20 1 * * *", "2019-11-03T01:40:00" },
+                { "2019-04-07T02:10:00", "*/20 1 * * *", "2019-04-07T01:40:00" },
+
+        });
+    }
+
+    private String baseDateTime;
+    private String expression;
+    private String expectedDateTime;
+
+    public SchedulePreviousTest(String baseDateTime, String expression, String expectedDateTime) {
+        this.baseDateTime = baseDateTime;
+        this.expression = expression;
+        this.expectedDateTime = expectedDateTime;
+    }
+
+    @Test
+    public void testPrevious() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create(this.expression);
+        LocalDateTime base = LocalDateTime.parse(this.baseDateTime);
+        LocalDateTime expected = LocalDateTime.parse(this.expectedDateTime);
+        Assert.assertEquals(expected, schedule.previous(base));
+        Assert.assertFalse(schedule.next(expected).isBefore(base));
+    }
+
+    @Test
+    public void testPreviousIsInverseOfNext() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create(this.expression);
+        for (ZoneId zone : ScheduleFixtures.ZONES) {
+            ZonedDateTime base = LocalDateTime.parse(this.baseDateTime).atZone(zone);
+            long baseEpochMillis = base.toInstant().toEpochMilli();
+            long previous = schedule.previousEpochMillis(baseEpochMillis, zone);
+            Assert.assertTrue(previous < baseEpochMillis);
+            Assert.assertTrue(schedule.nextEpochMillis(previous, zone) >= baseEpochMillis);
+            Assert.assertEquals(previous, schedule.nextEpochMillis(previous - 1, zone));
+            Assert.assertEquals(previous, schedule.previousEpochMillis(schedule.nextEpochMillis(previous, zone), zone));
+            Assert.assertEquals(Instant.ofEpochMilli(previous), schedule.previous(base).toInstant());
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleSetTest {
+
+    // day combinations the columns of a set evaluate separately, in addition to
+    // the shared expressions
+    private static final String[] SET_EXPRESSIONS = { "0 0 * feb 0L", "0 0 1-7 * 1", "0 0 */10 * 2,4",
+            "0 0 * * 6" };
+
+    @Test
+    public void testMatchesSchedules() throws InvalidExpressionException {
+        List<Schedule> schedules = new ArrayList<>();
+        for (String expression : ScheduleFixtures.EXPRESSIONS) {
+            schedules.add(Schedule.create(expression));
+        }
+        for (String expression : SET_EXPRESSIONS) {
+            schedules.add(Schedule.create(expression));
+        }
+        Random random = new Random(11);
+        for (int i = 0; i < 300; i++) {
+            schedules.add(Schedule.create(random.nextInt(60) + " " + random.nextInt(24) + " " + (1 + random.nextInt(31))
+                    + " * " + random.nextInt(7)));
+            schedules.add(Schedule.create("0 */" + (1 + random.nextInt(10)) + " * * *"));
+        }
+        ScheduleSet set = new ScheduleSet(schedules);
+        Assert.assertEquals(schedules.size(), set.size());
+
+        long[] bitmap = new long[(schedules.size() + 63) / 64];
+        for (ZoneId zone : ScheduleFixtures.ZONES) {
+            for (long[] window : ScheduleFixtures.WINDOWS) {
+                for (long second : transitionSeconds(zone, window[0], window[0] + window[1])) {
+                    int count = set.matches(second, zone, bitmap);
+                    int expectedCount = 0;
+                    for (int i = 0; i < schedules.size(); i++) {
+                        boolean expected = schedules.get(i).matches(second, zone);
+                        expectedCount += expected ? 1 : 0;
+                        if (expected != ((bitmap[i >>> 6] & (1L << i)) != 0)) {
+                            Assert.fail(set.get(i) + " " + zone + " " + second);
+                        }
+                    }
+                    Assert.assertEquals(expectedCount, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the seconds of the window where the columns of a set change: around
+     * the local midnights, where the days change, and every 20 seconds around the
+     * offset transitions of the zone, where the local times are shifted or
+     * repeated.
+     */
+    private static Set<Long> transitionSeconds(ZoneId zone, long from, long to) {
+        Set<Long> seconds = new TreeSet<>();
+        long midnight = LocalDate.ofEpochDay(Math.floorDiv(from, 86400L)).atStartOfDay(zone).toEpochSecond();
+        for (; midnight < to + 86400; midnight = Instant.ofEpochSecond(midnight).atZone(zone).toLocalDate()
+                .plusDays(1).atStartOfDay(zone).toEpochSecond()) {
+            addAround(seconds, midnight, from, to);
+        }
+        ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.ofEpochSecond(from - 1));
+        for (; transition != null && transition.toEpochSecond() < to; transition = zone.getRules()
+                .nextTransition(transition.getInstant())) {
+            long change = Math.abs(transition.getDuration().getSeconds());
+            for (long second = transition.toEpochSecond() - 60; second <= transition.toEpochSecond() + change
+                    + 60; second += 20) {
+                addAround(seconds, second, from, to);
+            }
+        }
+        return seconds;
+    }
+
+    private static void addAround(Set<Long> seconds, long second, long from, long to) {
+        for (long around = second - 1; around <= second + 1; around++) {
+            if (from <= around && around < to) {
+                seconds.add(around);
+            }
+        }
+    }
+
+    @Test
+    public void testBitmap() throws InvalidExpressionException {
+        List<Schedule> schedules = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            schedules.add(Schedule.create(i % 2 == 0 ? "0 * * * *" : "30 * * * *"));
+        }
+        ScheduleSet set = new ScheduleSet(schedules);
+        long[] bitmap = set.matches(Instant.parse("2019-05-01T10:00:00Z").getEpochSecond(), ZoneOffset.UTC);
+        long even = 0x5555555555555555L;
+        Assert.assertArrayEquals(new long[] { even, even, 0b01 }, bitmap);
+        Assert.assertEquals(0, set.matches(Instant.parse("2019-05-01T10:00:01Z").getEpochSecond(), ZoneOffset.UTC,
+                bitmap));
+        Assert.assertEquals("[0, 0, 0]", Arrays.toString(bitmap));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortBitmap() throws InvalidExpressionException {
+        ScheduleSet set = new ScheduleSet(Arrays.asList(Schedule.create("* * * * *")));
+        set.matches(0, ZoneOffset.UTC, new long[0]);
+    }
+}
@@ -0,0 +1,119 @@
+package com.asahaf.javacron;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ScheduleStoreTest {
+
+    private static final String[] EXPRESSIONS = { "* * * * * *", "*/5 * * * *", "0 0 29 2 *", "0 0 0 L * *",
+            "0 0 0 * * 5L", "0 0 12 1,15 * 1", "30 2 * * *", "0 15,45 1-3 * * *" };
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDirectStore() throws InvalidExpressionException {
+        ScheduleStore store = new ScheduleStore(EXPRESSIONS.length);
+        Assert.assertEquals(EXPRESSIONS.length, store.capacity());
+        for (int i = 0; i < EXPRESSIONS.length; i++) {
+            Assert.assertEquals(i, store.add(Schedule.create(EXPRESSIONS[i])));
+        }
+        Assert.assertEquals(EXPRESSIONS.length, store.size());
+        assertSameAsSchedules(store);
+    }
+
+    @Test
+    public void testMappedStore() throws IOException, InvalidExpressionException {
+        Path file = this.folder.getRoot().toPath().resolve("schedules.bin");
+        ScheduleStore store = ScheduleStore.open(file, 100);
+        for (String expression : EXPRESSIONS) {
+            store.add(Schedule.create(expression));
+        }
+        store.set(1, Schedule.create("*/10 * * * *"));
+        store.force();
+
+        ScheduleStore reopened = ScheduleStore.open(file, 10);
+        Assert.assertEquals(100, reopened.capacity());
+        Assert.assertEquals(EXPRESSIONS.length, reopened.size());
+        Assert.assertEquals(Schedule.create("*/10 * * * *"), reopened.get(1));
+        reopened.set(1, Schedule.create(EXPRESSIONS[1]));
+        assertSameAsSchedules(reopened);
+    }
+
+    @Test
+    public void testFull() throws InvalidExpressionException {
+        ScheduleStore store = new ScheduleStore(1);
+        store.add(Schedule.create("* * * * *"));
+        try {
+            store.add(Schedule.create("* * * * *"));
+            Assert.fail();
+        } catch (IllegalStateException ex) {
+            Assert.assertEquals("schedule store is full: 1", ex.getMessage());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testUnknownId() throws InvalidExpressionException {
+        ScheduleStore store = new ScheduleStore(10);
+        store.add(Schedule.create("* * * * *"));
+        store.nextEpochMillis(1, 0, NEW_YORK);
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException, InvalidExpressionException {
+        Path file = this.folder.getRoot().toPath().resolve("schedules.bin");
+        ScheduleStore store = ScheduleStore.open(file, 2);
+        store.add(Schedule.create("* * * * *"));
+        store.force();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] { 9 }), 8);
+        }
+        try {
+            ScheduleStore.open(file, 2);
+            Assert.fail();
+        } catch (IOException ex) {
+            Assert.assertEquals("invalid schedule 0 in " + file, ex.getMessage());
+        }
+
+        Path other = this.folder.newFile("other.bin").toPath();
+        try (FileChannel channel = FileChannel.open(other, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[16]));
+        }
+        try {
+            ScheduleStore.open(other, 2);
+            Assert.fail();
+        } catch (IOException ex) {
+            Assert.assertEquals("not a schedule store: " + other, ex.getMessage());
+        }
+    }
+
+    private static void assertSameAsSchedules(ScheduleStore store) throws InvalidExpressionException {
+        long base = Instant.parse("2019-03-10T05:00:00Z").toEpochMilli();
+        for (int round = 0; round < 50; round++) {
+            // alternate between the schedules so the per-thread schedule is reloaded
+            for (int id = 0; id < EXPRESSIONS.length; id++) {
+                Schedule schedule = Schedule.create(EXPRESSIONS[id]);
+                long time = base + round * 1234567L;
+                Assert.assertEquals(EXPRESSIONS[id], schedule.nextEpochMillis(time, NEW_YORK),
+                        store.nextEpochMillis(id, time, NEW_YORK));
+                long second = schedule.nextEpochMillis(time, NEW_YORK) / 1000L;
+                Assert.assertEquals(EXPRESSIONS[id], schedule.matches(second, NEW_YORK),
+                        store.matches(id, second, NEW_YORK));
+                Assert.assertEquals(EXPRESSIONS[id], schedule.matches(second + 1, NEW_YORK),
+                        store.matches(id, second + 1, NEW_YORK));
+                Assert.assertEquals(schedule, store.get(id));
+            }
+        }
+    }
+}
@@ -527,6 +527,8 @@ public class ScheduleTest {
                 // leap year dividable by 100 and 400
                 { "2000-01-01 00:00:00", "0 0 0 29 2 *", "2000-02-29 00:00:00" },
                 { "2000-02-29 00:00:00", "0 0 0 29 2 *", "2004-02-29 00:00:00" },
+                { "2096-02-29 00:00:00", "0 0 0 29 2 *", "2104-02-29 00:00:00" },
+                { "2100-02-01 00:00:00", "0 0 0 L 2 *", "2100-02-28 00:00:00" },
 
                 // more year tests
                 { "2016-01-01 00:00:00", "0 0 0 28 2 *", "2016-02-28 00:00:00" },
@@ -0,0 +1,79 @@
+package com.asahaf.javacron;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.asahaf.javacron.ValidationResult.ErrorCode;
+
+public class ScheduleValidateTest {
+
+    private static final String[] EXPRESSIONS = { "* * * * *", "0 0 * * * *", "*/5 1-10/2 L * *", "0 9 * * mon-fri",
+            "0 0 * * 5L", "", "   ", "* * *", "* * * * * * *", "60 * * * *", "* 24 * * *", "* * 0 * *",
+            "* * * 13 *", "* * * * 7", "* * * * foo", "* * * jan-foo *", "5-1 * * * *", "*/0 * * * *", "*/x * * * *",
+            "1, * * * *", ",1 * * * *", "1,,2 * * * *", "1-2,3-x,4 * * * *", "1- * * * *", "5x * * * *",
+            "* * L * 5L", "* * 1 * 5L", "0 0 30 2 *", "0 0 31 4,6 *", "0 0 * * * 5 8", " \t0 0 30 2 *" };
+
+    @Test
+    public void testValid() {
+        ValidationResult result = Schedule.validate("0 9 * * mon-fri");
+        Assert.assertTrue(result.isValid());
+        Assert.assertNull(result.getErrorCode());
+        Assert.assertNull(result.getField());
+        Assert.assertEquals(-1, result.getErrorOffset());
+        Assert.assertSame(result, Schedule.validate("* * * * * *"));
+    }
+
+    @Test
+    public void testErrors() {
+        assertError("", ErrorCode.EMPTY, null, -1);
+        assertError("* * *", ErrorCode.FIELD_COUNT, null, -1);
+        assertError("* * * * * * 1", ErrorCode.FIELD_COUNT, null, 12);
+        assertError("1,x * * * *", ErrorCode.INVALID_VALUE, CronFieldType.MINUTE, 2);
+        assertError("* * * * * sun-xyz", ErrorCode.INVALID_VALUE, CronFieldType.DAY_OF_WEEK, 14);
+        assertError("* * 0 * *", ErrorCode.BELOW_MINIMUM, CronFieldType.DAY, 4);
+        assertError("* * * 1-13 *", ErrorCode.ABOVE_MAXIMUM, CronFieldType.MONTH, 8);
+        assertError("60 * * * * *", ErrorCode.ABOVE_MAXIMUM, CronFieldType.SECOND, 0);
+        assertError("* 5-1 * * *", ErrorCode.INVALID_RANGE, CronFieldType.HOUR, 2);
+        assertError("*/0 * * * *", ErrorCode.INVALID_STEP, CronFieldType.MINUTE, 2);
+        assertError("* * L * 5L", ErrorCode.LAST_DAY_CONFLICT, CronFieldType.DAY_OF_WEEK, 8);
+        assertError("* * 1 * 5L", ErrorCode.LAST_DAY_OF_WEEK_WITH_DAYS, CronFieldType.DAY, 4);
+        assertError("0 0 30 2 *", ErrorCode.NEVER_OCCURS, null, -1);
+    }
+
+    @Test
+    public void testSameAsCreate() {
+        for (String expression : EXPRESSIONS) {
+            assertSameAsCreate(expression);
+        }
+        Random random = new Random(11);
+        String alphabet = "0123456789*/,-LlmonMONjan ";
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder expression = new StringBuilder();
+            for (int length = random.nextInt(20); length > 0; length--) {
+                expression.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            assertSameAsCreate(expression.toString());
+        }
+    }
+
+    private static void assertSameAsCreate(String expression) {
+        ValidationResult result = Schedule.validate(expression);
+        try {
+            Schedule.create(expression);
+            Assert.assertTrue(expression, result.isValid());
+        } catch (InvalidExpressionException ex) {
+            Assert.assertFalse(expression, result.isValid());
+            Assert.assertEquals(expression, ex.getErrorOffset(), result.getErrorOffset());
+        }
+    }
+
+    private static void assertError(String expression, ErrorCode code, CronFieldType field, int offset) {
+        ValidationResult result = Schedule.validate(expression);
+        Assert.assertFalse(expression, result.isValid());
+        Assert.assertEquals(expression, code, result.getErrorCode());
+        Assert.assertEquals(expression, field, result.getField());
+        Assert.assertEquals(expression, offset, result.getErrorOffset());
+    }
+}
@@ -0,0 +1,240 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ScheduleZoneTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    @Test
+    public void testNextEpochMillisUtc() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 0 1,5,23 * * *");
+        Assert.assertEquals(millis("2019-01-01T05:00:00Z"),
+                schedule.nextEpochMillis(millis("2019-01-01T04:04:02.500Z"), ZoneOffset.UTC));
+        schedule = Schedule.create("* * * * * *");
+        Assert.assertEquals(millis("2019-01-01T04:04:03Z"),
+                schedule.nextEpochMillis(millis("2019-01-01T04:04:02.999Z"), ZoneOffset.UTC));
+        schedule = Schedule.create("0 0 0 29 2 *");
+        Assert.assertEquals(millis("2104-02-29T00:00:00Z"),
+                schedule.nextEpochMillis(millis("2096-02-29T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testNextEpochMillisBeforeEpoch() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 0 0 L * *");
+        Assert.assertEquals(millis("1969-12-31T00:00:00Z"),
+                schedule.nextEpochMillis(millis("1969-12-01T00:00:00Z"), ZoneOffset.UTC));
+        Assert.assertEquals(millis("1900-02-28T00:00:00Z"),
+                schedule.nextEpochMillis(millis("1900-02-01T00:00:00Z"), ZoneOffset.UTC));
+    }
+
+    @Test
+    public void testNextEpochMillisFixedOffset() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 9 * * *");
+        Assert.assertEquals(millis("2019-01-01T06:00:00Z"),
+                schedule.nextEpochMillis(millis("2019-01-01T00:00:00Z"), ZoneOffset.ofHours(3)));
+    }
+
+    @Test
+    public void testNextEpochMillisGap() throws InvalidExpressionException {
+        // 2019-03-10 02:00 EST clocks were set forward to 03:00 EDT
+        Schedule schedule = Schedule.create("30 2 * * *");
+        Assert.assertEquals(millis("2019-03-10T07:30:00Z"),
+                schedule.nextEpochMillis(millis("2019-03-10T06:00:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-03-11T06:30:00Z"),
+                schedule.nextEpochMillis(millis("2019-03-10T07:30:00Z"), NEW_YORK));
+    }
+
+    @Test
+    public void testNextEpochMillisFromGapWindow() throws InvalidExpressionException {
+        // 2005-03-27 01:00 GMT clocks were set forward to 02:00 BST
+        ZoneId london = ZoneId.of("Europe/London");
+        Schedule schedule = Schedule.create("7 1 * * *");
+        Assert.assertEquals(millis("2005-03-27T01:07:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T00:30:00Z"), london));
+        Assert.assertEquals(millis("2005-03-27T01:07:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:06:59Z"), london));
+        Assert.assertEquals(millis("2005-03-28T00:07:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:07:00Z"), london));
+        // every skipped run happens, in order, from any base in the window
+        schedule = Schedule.create("*/15 1 * * *");
+        String[] runs = { "2005-03-27T01:00:00Z", "2005-03-27T01:15:00Z", "2005-03-27T01:30:00Z",
+                "2005-03-27T01:45:00Z", "2005-03-28T00:00:00Z" };
+        long base = millis("2005-03-27T00:30:00Z");
+        for (String run : runs) {
+            base = schedule.nextEpochMillis(base, london);
+            Assert.assertEquals(millis(run), base);
+        }
+        Assert.assertEquals(millis("2005-03-27T01:30:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:20:00Z"), london));
+        // skipped runs are shifted between the runs of the hour after the gap
+        schedule = Schedule.create("10,50 1-2 * * *");
+        Assert.assertEquals(millis("2005-03-27T01:10:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:05:00Z"), london));
+        Assert.assertEquals(millis("2005-03-27T01:50:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:10:00Z"), london));
+        Assert.assertEquals(millis("2005-03-28T00:10:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:50:00Z"), london));
+        schedule = Schedule.create("20 1 * * *");
+        Assert.assertEquals(millis("2005-03-27T01:20:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:10:00Z"), london));
+        schedule = Schedule.create("0 1,2 * * *");
+        Assert.assertEquals(millis("2005-03-27T01:00:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T00:30:00Z"), london));
+        Assert.assertEquals(millis("2005-03-28T00:00:00Z"),
+                schedule.nextEpochMillis(millis("2005-03-27T01:00:00Z"), london));
+    }
+
+    @Test
+    public void testNextInstantFromHalfHourGapWindow() throws InvalidExpressionException {
+        // 2019-10-06 02:00 Lord Howe clocks were set forward to 02:30, at 15:30Z
+        ZoneId lordHowe = ZoneId.of("Australia/Lord_Howe");
+        Schedule schedule = Schedule.create("5,20,35 2 * * *");
+        Assert.assertEquals(Instant.parse("2019-10-05T15:35:00Z"),
+                schedule.next(Instant.parse("2019-10-05T14:00:00Z"), lordHowe));
+        Assert.assertEquals(Instant.parse("2019-10-05T15:35:00Z"),
+                schedule.next(Instant.parse("2019-10-05T15:30:00Z"), lordHowe));
+        Assert.assertEquals(Instant.parse("2019-10-05T15:50:00Z"),
+                schedule.next(Instant.parse("2019-10-05T15:35:00Z"), lordHowe));
+        Assert.assertEquals(Instant.parse("2019-10-06T15:05:00Z"),
+                schedule.next(Instant.parse("2019-10-05T15:50:00Z"), lordHowe));
+    }
+
+    @Test
+    public void testNextEpochMillisOverlap() throws InvalidExpressionException {
+        // 2019-11-03 02:00 EDT clocks were set back to 01:00 EST
+        Schedule schedule = Schedule.create("30 1 * * *");
+        Assert.assertEquals(millis("2019-11-03T05:30:00Z"),
+                schedule.nextEpochMillis(millis("2019-11-03T04:00:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-11-04T06:30:00Z"),
+                schedule.nextEpochMillis(millis("2019-11-03T05:30:00Z"), NEW_YORK));
+        schedule = Schedule.create("*/20 * * * *");
+        Assert.assertEquals(millis("2019-11-03T05:40:00Z"),
+                schedule.nextEpochMillis(millis("2019-11-03T05:20:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-11-03T07:00:00Z"),
+                schedule.nextEpochMillis(millis("2019-11-03T05:40:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-11-03T07:00:00Z"),
+                schedule.nextEpochMillis(millis("2019-11-03T06:10:00Z"), NEW_YORK));
+    }
+
+    @Test
+    public void testNextZonedDateTime() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 0 2 * * *");
+        ZonedDateTime base = ZonedDateTime.of(2019, 3, 9, 12, 0, 0, 0, NEW_YORK);
+        ZonedDateTime next = schedule.next(base);
+        Assert.assertEquals(ZonedDateTime.of(2019, 3, 10, 3, 0, 0, 0, NEW_YORK), next);
+        Assert.assertEquals(NEW_YORK, next.getZone());
+        Assert.assertEquals(ZonedDateTime.of(2019, 3, 11, 2, 0, 0, 0, NEW_YORK), schedule.next(next));
+    }
+
+    @Test
+    public void testNextZonedDateTimeOverlap() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 0 * * * *");
+        ZonedDateTime base = ZonedDateTime.of(2019, 11, 3, 0, 30, 0, 0, NEW_YORK);
+        ZonedDateTime next = schedule.next(base);
+        Assert.assertEquals(ZonedDateTime.of(2019, 11, 3, 1, 0, 0, 0, NEW_YORK), next);
+        Assert.assertEquals(ZoneOffset.ofHours(-4), next.getOffset());
+        next = schedule.next(next);
+        Assert.assertEquals(ZonedDateTime.of(2019, 11, 3, 2, 0, 0, 0, NEW_YORK), next);
+        Assert.assertEquals(ZoneOffset.ofHours(-5), next.getOffset());
+    }
+
+    @Test
+    public void testNextInstant() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("0 0 0 * * *");
+        ZoneId sydney = ZoneId.of("Australia/Sydney");
+        // Sydney is on daylight saving time (+11:00) over the new year
+        Assert.assertEquals(Instant.parse("2019-12-31T13:00:00Z"),
+                schedule.next(Instant.parse("2019-12-31T00:00:00Z"), sydney));
+        Assert.assertEquals(Instant.parse("2020-01-01T13:00:00Z"),
+                schedule.next(Instant.parse("2019-12-31T13:00:00Z"), sydney));
+        // 2020-04-05 03:00 AEDT clocks were set back to 02:00 AEST
+        Assert.assertEquals(Instant.parse("2020-04-05T14:00:00Z"),
+                schedule.next(Instant.parse("2020-04-04T13:00:00Z"), sydney));
+    }
+
+    @Test
+    public void testNextInstantHalfHourTransition() throws InvalidExpressionException {
+        // 2019-10-06 02:00 Lord Howe clocks were set forward by 30 minutes
+        ZoneId lordHowe = ZoneId.of("Australia/Lord_Howe");
+        Schedule schedule = Schedule.create("15 2 * * *");
+        Assert.assertEquals(ZonedDateTime.of(2019, 10, 6, 2, 45, 0, 0, lordHowe).toInstant(),
+                schedule.next(Instant.parse("2019-10-05T00:00:00Z"), lordHowe));
+    }
+
+    @Test
+    public void testNextLocalDateTime() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("30 2 * * *");
+        Assert.assertEquals(LocalDateTime.of(2019, 3, 10, 2, 30),
+                schedule.next(LocalDateTime.of(2019, 3, 10, 1, 0, 0, 999)));
+        schedule = Schedule.create("0 0 0 L * *");
+        Assert.assertEquals(LocalDateTime.of(2020, 2, 29, 0, 0), schedule.next(LocalDateTime.of(2020, 2, 1, 0, 0)));
+    }
+
+    @Test
+    public void testPreviousEpochMillisGap() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("30 2 * * *");
+        Assert.assertEquals(millis("2019-03-10T07:30:00Z"),
+                schedule.previousEpochMillis(millis("2019-03-10T08:00:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-03-09T07:30:00Z"),
+                schedule.previousEpochMillis(millis("2019-03-10T07:15:00Z"), NEW_YORK));
+        schedule = Schedule.create("* * * * *");
+        Assert.assertEquals(millis("2019-03-10T06:59:00Z"),
+                schedule.previousEpochMillis(millis("2019-03-10T07:00:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-03-10T07:00:00Z"),
+                schedule.previousEpochMillis(millis("2019-03-10T07:00:01Z"), NEW_YORK));
+    }
+
+    @Test
+    public void testPreviousEpochMillisInGapWindow() throws InvalidExpressionException {
+        // 2005-03-27 01:00 GMT clocks were set forward to 02:00 BST
+        ZoneId london = ZoneId.of("Europe/London");
+        Schedule schedule = Schedule.create("*/15 1 * * *");
+        String[] runs = { "2005-03-27T01:45:00Z", "2005-03-27T01:30:00Z", "2005-03-27T01:15:00Z",
+                "2005-03-27T01:00:00Z", "2005-03-26T01:45:00Z" };
+        long base = millis("2005-03-27T02:00:00Z");
+        for (String run : runs) {
+            base = schedule.previousEpochMillis(base, london);
+            Assert.assertEquals(millis(run), base);
+        }
+        Assert.assertEquals(millis("2005-03-27T01:15:00Z"),
+                schedule.previousEpochMillis(millis("2005-03-27T01:20:00Z"), london));
+        schedule = Schedule.create("7 1 * * *");
+        Assert.assertEquals(millis("2005-03-27T01:07:00Z"),
+                schedule.previousEpochMillis(millis("2005-03-27T01:07:01Z"), london));
+        Assert.assertEquals(millis("2005-03-26T01:07:00Z"),
+                schedule.previousEpochMillis(millis("2005-03-27T01:07:00Z"), london));
+        // 2019-10-06 02:00 Lord Howe clocks were set forward to 02:30, at 15:30Z,
+        // so 02:20 is shifted to 15:50Z, after 02:40 at 15:40Z
+        ZoneId lordHowe = ZoneId.of("Australia/Lord_Howe");
+        schedule = Schedule.create("*/20 2 * * *");
+        Assert.assertEquals(millis("2019-10-05T15:50:00Z"),
+                schedule.previousEpochMillis(millis("2019-10-05T16:00:00Z"), lordHowe));
+        Assert.assertEquals(millis("2019-10-05T15:40:00Z"),
+                schedule.previousEpochMillis(millis("2019-10-05T15:50:00Z"), lordHowe));
+        Assert.assertEquals(millis("2019-10-05T15:30:00Z"),
+                schedule.previousEpochMillis(millis("2019-10-05T15:40:00Z"), lordHowe));
+    }
+
+    @Test
+    public void testPreviousEpochMillisOverlap() throws InvalidExpressionException {
+        Schedule schedule = Schedule.create("*/20 * * * *");
+        Assert.assertEquals(millis("2019-11-03T05:40:00Z"),
+                schedule.previousEpochMillis(millis("2019-11-03T07:00:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-11-03T05:40:00Z"),
+                schedule.previousEpochMillis(millis("2019-11-03T06:30:00Z"), NEW_YORK));
+        Assert.assertEquals(millis("2019-11-03T05:20:00Z"),
+                schedule.previousEpochMillis(millis("2019-11-03T05:40:00Z"), NEW_YORK));
+    }
+}
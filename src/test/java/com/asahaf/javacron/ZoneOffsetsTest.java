@@ -0,0 +1,49 @@
+package com.asahaf.javacron;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZoneOffsetsTest {
+
+    private static final String[] ZONES = { "UTC", "America/New_York", "Europe/London", "Australia/Sydney",
+            "Australia/Lord_Howe", "Asia/Kolkata", "Pacific/Apia", "America/Sao_Paulo" };
+
+    private static final long STEP = 1789L;
+
+    @Test
+    public void testToLocal() {
+        long from = Instant.parse("2010-12-25T00:00:00Z").getEpochSecond();
+        long to = Instant.parse("2013-01-05T00:00:00Z").getEpochSecond();
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            ZoneRules rules = zone.getRules();
+            ZoneOffsets offsets = ZoneOffsets.of(zone);
+            for (long second = from; second < to; second += STEP) {
+                long expected = second + rules.getOffset(Instant.ofEpochSecond(second)).getTotalSeconds();
+                Assert.assertEquals(id + " " + second, expected, offsets.toLocal(second));
+            }
+        }
+    }
+
+    @Test
+    public void testToEpochSecond() {
+        long from = LocalDateTime.of(2010, 12, 25, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        long to = LocalDateTime.of(2013, 1, 5, 0, 0).toEpochSecond(ZoneOffset.UTC);
+        for (String id : ZONES) {
+            ZoneId zone = ZoneId.of(id);
+            ZoneOffsets offsets = ZoneOffsets.of(zone);
+            for (long local = from; local < to; local += STEP) {
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(local, 0, ZoneOffset.UTC);
+                long expected = ZonedDateTime.of(dateTime, zone).toEpochSecond();
+                Assert.assertEquals(id + " " + dateTime, expected, offsets.toEpochSecond(local));
+            }
+        }
+    }
+}